@@ -4,6 +4,8 @@ import java.awt.Color;
 
 import javax.swing.UIManager;
 
+import com.seaglasslookandfeel.util.ColorUtils;
+
 /**
  * DerivedColor - A color implementation that is derived from a UIManager
  * defaults table color and a set of offsets. It can be rederived at any point
@@ -17,7 +19,7 @@ class DerivedColor extends Color {
     private final String uiDefaultParentName;
     private final float hOffset, sOffset, bOffset;
     private final int aOffset;
-    private int argbValue = Integer.MAX_VALUE;
+    private volatile int argbValue = Integer.MAX_VALUE;
 
     DerivedColor(String uiDefaultParentName, float hOffset, float sOffset, float bOffset, int aOffset) {
         super(0);
@@ -48,27 +50,21 @@ class DerivedColor extends Color {
         return aOffset;
     }
 
+    /**
+     * Forget the derived value so that it is recalculated from the parent
+     * color the next time it is needed.
+     */
+    void invalidate() {
+        argbValue = Integer.MAX_VALUE;
+    }
+
     /**
      * Recalculate the derived color from the UIManager parent color and offsets
      */
-    private void rederiveColor() {
+    void rederiveColor() {
         Color src = UIManager.getColor(uiDefaultParentName);
-        if (src != null) {
-            float[] tmp = Color.RGBtoHSB(src.getRed(), src.getGreen(), src.getBlue(), null);
-            // apply offsets
-            tmp[0] = clamp(tmp[0] + hOffset);
-            tmp[1] = clamp(tmp[1] + sOffset);
-            tmp[2] = clamp(tmp[2] + bOffset);
-            int alpha = clamp(src.getAlpha() + aOffset);
-            argbValue = (Color.HSBtoRGB(tmp[0], tmp[1], tmp[2]) & 0xFFFFFF) | (alpha << 24);
-        } else {
-            float[] tmp = new float[3];
-            tmp[0] = clamp(hOffset);
-            tmp[1] = clamp(sOffset);
-            tmp[2] = clamp(bOffset);
-            int alpha = clamp(aOffset);
-            argbValue = (Color.HSBtoRGB(tmp[0], tmp[1], tmp[2]) & 0xFFFFFF) | (alpha << 24);
-        }
+        // Without a parent, the offsets are used as the color itself.
+        argbValue = ColorUtils.deriveARGB(src == null ? 0 : src.getRGB(), hOffset, sOffset, bOffset, aOffset);
     }
 
     /**
@@ -92,7 +88,7 @@ class DerivedColor extends Color {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (!(o instanceof DerivedColor)) return false;
+        if (o == null || o.getClass() != getClass()) return false;
         DerivedColor that = (DerivedColor) o;
         if (aOffset != that.aOffset) return false;
         if (Float.compare(that.bOffset, bOffset) != 0) return false;
@@ -105,34 +101,13 @@ class DerivedColor extends Color {
     @Override
     public int hashCode() {
         int result = uiDefaultParentName.hashCode();
-        result = 31 * result + hOffset != +0.0f ?
-                Float.floatToIntBits(hOffset) : 0;
-        result = 31 * result + sOffset != +0.0f ?
-                Float.floatToIntBits(sOffset) : 0;
-        result = 31 * result + bOffset != +0.0f ?
-                Float.floatToIntBits(bOffset) : 0;
+        result = 31 * result + Float.floatToIntBits(hOffset);
+        result = 31 * result + Float.floatToIntBits(sOffset);
+        result = 31 * result + Float.floatToIntBits(bOffset);
         result = 31 * result + aOffset;
         return result;
     }
 
-    private float clamp(float value) {
-        if (value < 0) {
-            value = 0;
-        } else if (value > 1) {
-            value = 1;
-        }
-        return value;
-    }
-
-    private int clamp(int value) {
-        if (value < 0) {
-            value = 0;
-        } else if (value > 255) {
-            value = 255;
-        }
-        return value;
-    }
-    
     /**
      * Returns a string representation of this <code>Color</code>. This method
      * is intended to be used only for debugging purposes. The content and
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The paint counts of the painters of one painter class and state, such as
+ * "ButtonPainter.BACKGROUND_ENABLED". Painters record into these only while
+ * {@link SeaGlassStatistics#isEnabled()} is true.
+ *
+ * <p>A render is a call of the painter's doPaint method. It is direct if it
+ * paints onto the component, and cached if it paints an image for the image
+ * cache. A cache hit is a paint which found a valid image in the cache.</p>
+ */
+public final class PainterStatistics {
+
+    private final String name;
+
+    private final AtomicLong paintCount        = new AtomicLong();
+    private final AtomicLong directRenderCount = new AtomicLong();
+    private final AtomicLong cachedRenderCount = new AtomicLong();
+    private final AtomicLong cacheHitCount     = new AtomicLong();
+    private final AtomicLong cacheMissCount    = new AtomicLong();
+    private final AtomicLong renderNanos       = new AtomicLong();
+
+    /**
+     * Creates a new PainterStatistics object.
+     *
+     * @param name the painter class and state.
+     */
+    PainterStatistics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record a call of the painter's paint method.
+     */
+    public void recordPaint() {
+        paintCount.incrementAndGet();
+    }
+
+    /**
+     * Record a lookup of the painter's image in the image cache.
+     *
+     * @param hit {@code true} if a valid image was found, {@code false} if it
+     *            had to be rendered.
+     */
+    public void recordCacheLookup(boolean hit) {
+        (hit ? cacheHitCount : cacheMissCount).incrementAndGet();
+    }
+
+    /**
+     * Record a call of the painter's doPaint method.
+     *
+     * @param nanos  the time it took, in nanoseconds.
+     * @param cached {@code true} if it painted an image for the image cache,
+     *               {@code false} if it painted onto the component.
+     */
+    public void recordRender(long nanos, boolean cached) {
+        (cached ? cachedRenderCount : directRenderCount).incrementAndGet();
+        renderNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Get the painter class and state.
+     *
+     * @return the name, such as "ButtonPainter.BACKGROUND_ENABLED".
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of paints.
+     *
+     * @return the paint count.
+     */
+    public long getPaintCount() {
+        return paintCount.get();
+    }
+
+    /**
+     * Get the number of renders onto the component.
+     *
+     * @return the direct render count.
+     */
+    public long getDirectRenderCount() {
+        return directRenderCount.get();
+    }
+
+    /**
+     * Get the number of renders into cached images.
+     *
+     * @return the cached render count.
+     */
+    public long getCachedRenderCount() {
+        return cachedRenderCount.get();
+    }
+
+    /**
+     * Get the number of image cache lookups which found a valid image.
+     *
+     * @return the cache hit count.
+     */
+    public long getCacheHitCount() {
+        return cacheHitCount.get();
+    }
+
+    /**
+     * Get the number of image cache lookups which had to render the image.
+     *
+     * @return the cache miss count.
+     */
+    public long getCacheMissCount() {
+        return cacheMissCount.get();
+    }
+
+    /**
+     * Get the total time spent in doPaint.
+     *
+     * @return the time, in nanoseconds.
+     */
+    public long getRenderNanos() {
+        return renderNanos.get();
+    }
+
+    /**
+     * Create a copy of the counts as they are now.
+     *
+     * @return the copy.
+     */
+    PainterStatistics copy() {
+        PainterStatistics copy = new PainterStatistics(name);
+
+        copy.paintCount.set(paintCount.get());
+        copy.directRenderCount.set(directRenderCount.get());
+        copy.cachedRenderCount.set(cachedRenderCount.get());
+        copy.cacheHitCount.set(cacheHitCount.get());
+        copy.cacheMissCount.set(cacheMissCount.get());
+        copy.renderNanos.set(renderNanos.get());
+
+        return copy;
+    }
+
+    /**
+     * Set all counts to zero.
+     */
+    void reset() {
+        paintCount.set(0);
+        directRenderCount.set(0);
+        cachedRenderCount.set(0);
+        cacheHitCount.set(0);
+        cacheMissCount.set(0);
+        renderNanos.set(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %d paints, %d direct and %d cached renders, %d cache hits, %d misses, %.3f ms rendering", name,
+                             getPaintCount(), getDirectRenderCount(), getCachedRenderCount(), getCacheHitCount(),
+                             getCacheMissCount(), getRenderNanos() / 1e6);
+    }
+}
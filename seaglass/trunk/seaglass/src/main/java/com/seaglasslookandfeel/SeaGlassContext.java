@@ -19,10 +19,9 @@
  */
 package com.seaglasslookandfeel;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.JButton;
 import javax.swing.JComponent;
@@ -65,13 +64,27 @@ public class SeaGlassContext extends SynthContext {
     private static Region        fakeRegion    = Region.BUTTON;
     private static SynthStyle    fakeStyle     = new SeaGlassStyle(null, null);
 
-    // From SynthContext.
+    /** The most released contexts of each class kept by each thread. */
+    private static final int MAX_POOL_SIZE = 8;
 
-    private static final Map     contextMap;
+    /**
+     * Released contexts available for reuse, per thread and keyed by context
+     * class. Because each pool is confined to one thread, getting and
+     * releasing a context takes no lock, even when components are painted
+     * off the event dispatch thread.
+     */
+    private static final ThreadLocal<Map<Class<?>, ContextPool>> contextPools = new ThreadLocal<Map<Class<?>, ContextPool>>() {
+        @Override
+        protected Map<Class<?>, ContextPool> initialValue() {
+            return new HashMap<Class<?>, ContextPool>();
+        }
+    };
 
-    static {
-        contextMap = new HashMap();
-    }
+    /** The number of contexts taken from a pool. */
+    private static final AtomicLong poolHitCount = new AtomicLong();
+
+    /** The number of contexts which had to be created. */
+    private static final AtomicLong poolMissCount = new AtomicLong();
 
     private JComponent component;
     private Region     region;
@@ -125,21 +138,13 @@ public class SeaGlassContext extends SynthContext {
      * @return the newly constructed context, corresponding to the arguments.
      */
     public static SeaGlassContext getContext(Class type, JComponent component, Region region, SynthStyle style, int state) {
-        SeaGlassContext context = null;
-
-        synchronized (contextMap) {
-            List instances = (List) contextMap.get(type);
-
-            if (instances != null) {
-                int size = instances.size();
-
-                if (size > 0) {
-                    context = (SeaGlassContext) instances.remove(size - 1);
-                }
-            }
-        }
+        ContextPool     pool    = contextPools.get().get(type);
+        SeaGlassContext context = pool == null ? null : pool.take();
 
         if (context == null) {
+            if (SeaGlassStatistics.isStatisticsEnabled()) {
+                poolMissCount.incrementAndGet();
+            }
 
             try {
                 context = (SeaGlassContext) type.newInstance();
@@ -148,6 +153,10 @@ public class SeaGlassContext extends SynthContext {
             } catch (InstantiationException ie) {
                 ie.printStackTrace();
             }
+        } else {
+            if (SeaGlassStatistics.isStatisticsEnabled()) {
+                poolHitCount.incrementAndGet();
+            }
         }
 
         context.reset(component, region, style, state);
@@ -161,16 +170,44 @@ public class SeaGlassContext extends SynthContext {
      * @param context the context to release.
      */
     static void releaseContext(SeaGlassContext context) {
-        synchronized (contextMap) {
-            List instances = (List) contextMap.get(context.getClass());
+        Map<Class<?>, ContextPool> pools = contextPools.get();
+        ContextPool                pool  = pools.get(context.getClass());
 
-            if (instances == null) {
-                instances = new ArrayList(5);
-                contextMap.put(context.getClass(), instances);
-            }
-
-            instances.add(context);
+        if (pool == null) {
+            pool = new ContextPool();
+            pools.put(context.getClass(), pool);
         }
+
+        pool.add(context);
+    }
+
+    /**
+     * Returns the number of contexts which were reused from a pool while
+     * statistics were enabled, since they were last reset.
+     *
+     * @return the pool hit count.
+     */
+    public static long getPoolHitCount() {
+        return poolHitCount.get();
+    }
+
+    /**
+     * Returns the number of contexts which had to be created because no
+     * released context was available, while statistics were enabled, since
+     * they were last reset.
+     *
+     * @return the pool miss count.
+     */
+    public static long getPoolMissCount() {
+        return poolMissCount.get();
+    }
+
+    /**
+     * Reset the pool hit and miss counts.
+     */
+    public static void resetPoolStatistics() {
+        poolHitCount.set(0);
+        poolMissCount.set(0);
     }
 
     /**
@@ -288,4 +325,40 @@ public class SeaGlassContext extends SynthContext {
 
         return EMPTY_PAINTER;
     }
+
+    /**
+     * A bounded stack of released contexts of one class, used by one thread.
+     */
+    private static final class ContextPool {
+        private SeaGlassContext[] contexts = new SeaGlassContext[MAX_POOL_SIZE];
+        private int               size;
+
+        /**
+         * Take the most recently released context.
+         *
+         * @return the context, or {@code null} if the pool is empty.
+         */
+        SeaGlassContext take() {
+            if (size == 0) {
+                return null;
+            }
+
+            SeaGlassContext context = contexts[--size];
+
+            contexts[size] = null;
+
+            return context;
+        }
+
+        /**
+         * Add a released context, unless the pool is full.
+         *
+         * @param context the context.
+         */
+        void add(SeaGlassContext context) {
+            if (size < contexts.length) {
+                contexts[size++] = context;
+            }
+        }
+    }
 }
@@ -37,15 +37,22 @@ import java.awt.LayoutManager;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.BorderFactory;
 import javax.swing.JComponent;
@@ -55,6 +62,7 @@ import javax.swing.JInternalFrame;
 import javax.swing.JRootPane;
 import javax.swing.JToolBar;
 import javax.swing.LookAndFeel;
+import javax.swing.SwingUtilities;
 import javax.swing.UIDefaults;
 import javax.swing.UIManager;
 import javax.swing.border.BevelBorder;
@@ -96,6 +104,7 @@ import com.seaglasslookandfeel.painter.FrameAndRootPainter;
 import com.seaglasslookandfeel.painter.MenuItemPainter;
 import com.seaglasslookandfeel.painter.MenuPainter;
 import com.seaglasslookandfeel.painter.OptionPanePainter;
+import com.seaglasslookandfeel.painter.PainterFactory;
 import com.seaglasslookandfeel.painter.SeaGlassPainter;
 import com.seaglasslookandfeel.painter.PopupMenuPainter;
 import com.seaglasslookandfeel.painter.ProgressBarPainter;
@@ -161,7 +170,10 @@ import com.seaglasslookandfeel.state.TitlePaneMenuButtonWindowNotFocusedState;
 import com.seaglasslookandfeel.state.TitlePaneWindowFocusedState;
 import com.seaglasslookandfeel.state.ToolBarWindowIsActiveState;
 import com.seaglasslookandfeel.ui.SeaglassUI;
+import com.seaglasslookandfeel.util.AccessorCache;
+import com.seaglasslookandfeel.util.ImageCache;
 import com.seaglasslookandfeel.util.MacKeybindings;
+import com.seaglasslookandfeel.util.PainterWarmUp;
 import com.seaglasslookandfeel.util.PlatformUtils;
 import com.seaglasslookandfeel.util.SeaGlassGraphicsUtils;
 
@@ -172,6 +184,15 @@ import com.seaglasslookandfeel.util.SeaGlassGraphicsUtils;
  * NimbusLookAndFeel and SynthLookAndFeel where those methods were package
  * local.</p>
  *
+ * <p>Components may be painted to offscreen images on threads other than the
+ * event dispatch thread, and several threads may do so at once, for example
+ * to render reports or thumbnails. Styles, painters and their caches are
+ * shared, and keep their scratch objects per thread. Each thread must create
+ * and paint its own component trees, preferably with {@code print} or
+ * {@code printAll} so that Swing's shared double buffer is not used. The look
+ * and feel must be installed, and the UIDefaults changed, on one thread while
+ * no other thread is painting.</p>
+ *
  * @author Kathryn Huxtable
  * @author Kenneth Orr
  * @see    javax.swing.plaf.synth.SynthLookAndFeel
@@ -263,6 +284,13 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
 
     private Map<String, Region> registeredRegions = new HashMap<String, Region>();
 
+    /**
+     * The LazyStyles of each region, compiled for quick matching by
+     * getSeaGlassStyle. Built lazily from styleMap, and discarded whenever a
+     * new style is registered.
+     */
+    private Map<Region, CompiledStyles> compiledStyles = new ConcurrentHashMap<Region, CompiledStyles>();
+
     /**
      * Our fallback style to avoid NPEs if the proper style cannot be found in
      * this class. Not sure if relying on DefaultSynthStyle is the best choice.
@@ -277,6 +305,40 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
     
     private UIDefaults uiDefaults = null;
 
+    /**
+     * The shared derived colors. Every request for the same parent and offsets
+     * returns the instance stored here, so painters share one color object
+     * rather than each deriving their own. Guarded by itself.
+     */
+    private Map<DerivedColor, DerivedColor> derivedColors = new HashMap<DerivedColor, DerivedColor>();
+
+    /**
+     * The shared derived colors, keyed by the name of the UIDefaults color
+     * they are derived from. Guarded by derivedColors.
+     */
+    private Map<String, List<DerivedColor>> derivedColorsByParent = new HashMap<String, List<DerivedColor>>();
+
+    /**
+     * The names of the UIDefaults colors which are themselves derived colors,
+     * keyed by the name of their parent. Used to carry a palette change down
+     * to colors derived from derived colors. Guarded by derivedColors.
+     */
+    private Map<String, List<String>> derivedColorNamesByParent = new HashMap<String, List<String>>();
+
+    /**
+     * Re-derives the shared derived colors when a color they depend on is
+     * changed in the UIDefaults.
+     */
+    private PropertyChangeListener derivedColorUpdater = new DerivedColorUpdater();
+
+    /**
+     * Warms up the painters once the look and feel is installed, if set.
+     */
+    private PainterWarmUp painterWarmUp;
+
+    /** Whether this look and feel is between initialize and uninitialize. */
+    private volatile boolean initialized;
+
     /**
      * Create a new Sea Glass Look and Feel instance.
      */
@@ -294,7 +356,7 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
      * @return 
      * 
      */
-    private DefaultSynthStyle getDefaultStyle() {
+    private synchronized DefaultSynthStyle getDefaultStyle() {
         if (defaultStyle == null) {
             defaultStyle = new DefaultSynthStyle();
             defaultStyle.setFont((Font) this.uiDefaults.get("defaultFont"));
@@ -309,6 +371,8 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
     public void initialize() {
         super.initialize();
 
+        UIManager.getDefaults().addPropertyChangeListener(derivedColorUpdater);
+
         // create synth style factory
         setStyleFactory(new SynthStyleFactory() {
                 @Override
@@ -322,6 +386,15 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
                     return style;
                 }
             });
+
+        if (SeaGlassStatistics.isStatisticsEnabled()) {
+            SeaGlassStatistics.registerMBean();
+        }
+
+        initialized = true;
+        if (painterWarmUp != null) {
+            SwingUtilities.invokeLater(new PainterWarmUpStarter(painterWarmUp));
+        }
     }
 
     /**
@@ -329,12 +402,43 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
      */
     @Override
     public void uninitialize() {
+        initialized = false;
+        if (painterWarmUp != null) {
+            painterWarmUp.cancel();
+        }
+
+        UIManager.getDefaults().removePropertyChangeListener(derivedColorUpdater);
+        if (uiDefaults != null) {
+            uiDefaults.removePropertyChangeListener(derivedColorUpdater);
+        }
+
         removeOurUIs();
         resetDefaultBorders();
         JFrame.setDefaultLookAndFeelDecorated(false);
+        AccessorCache.clear();
         super.uninitialize();
     }
 
+    /**
+     * Set the warm-up which resolves and pre-renders the most common painters
+     * on a background thread once this look and feel is installed. It must be
+     * set before the look and feel is installed. Warming up is off by default.
+     *
+     * @param painterWarmUp the warm-up, or {@code null} to not warm up.
+     */
+    public void setPainterWarmUp(PainterWarmUp painterWarmUp) {
+        this.painterWarmUp = painterWarmUp;
+    }
+
+    /**
+     * Get the warm-up which resolves and pre-renders the most common painters.
+     *
+     * @return the warm-up, or {@code null} if painters are not warmed up.
+     */
+    public PainterWarmUp getPainterWarmUp() {
+        return painterWarmUp;
+    }
+
     /**
      * Initialize the map of styles.
      */
@@ -509,6 +613,10 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
                 // If we're on a Mac, use Aqua for some things.
                 defineAquaSettings(uiDefaults);
             }
+
+            // Only listen once the defaults are complete, so building them
+            // doesn't re-derive colors from a half-built table.
+            uiDefaults.addPropertyChangeListener(derivedColorUpdater);
         }
 
         return uiDefaults;
@@ -572,11 +680,12 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
      */
     private void defineToolTips(UIDefaults d) {
         String p = "ToolTip";
+        String c = PAINTER_PREFIX + "ToolTipPainter";
         d.put("seaGlassToolTipBorder", new Color(0x5b7ea4));
         d.put(p + ".contentMargins", new InsetsUIResource(4, 4, 4, 4));
         d.put(p + ".opaque", Boolean.FALSE);
         d.put(p + ".background", new ColorUIResource(0xd5, 0xe8, 0xf7));
-        d.put(p + ".backgroundPainter", new ToolTipPainter(ToolTipPainter.Which.BORDER_ENABLED));
+        d.put(p + ".backgroundPainter", new LazyPainter(c, ToolTipPainter.Which.BORDER_ENABLED));
     }
 
     /**
@@ -2654,6 +2763,9 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
 
         // add this region to the map of registered regions
         registeredRegions.put(region.getName(), region);
+
+        // The new style, or region name, may change how any region matches.
+        compiledStyles.clear();
     }
 
     /**
@@ -2667,6 +2779,11 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
      * looking for the best match, based on prefix. If a match was made, then
      * return that SynthStyle. Otherwise, return the defaultStyle.</p>
      *
+     * <p>The styles for each region are compiled into a {@link CompiledStyles}
+     * which only tests the styles that could match the component's name, and
+     * remembers the result for components with the same classes and names
+     * up the hierarchy.</p>
+     *
      * @param  c The component associated with this region. For example, if the
      *           Region is Region.Button then the component will be a JButton.
      *           If the Region is a subregion, such as ScrollBarThumb, then the
@@ -2683,35 +2800,15 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
             throw new IllegalArgumentException("Neither comp nor r may be null");
         }
 
-        // if there are no lazy styles registered for the region r, then return
-        // the default style
-        List<LazyStyle> styles = styleMap.get(r);
+        CompiledStyles styles = compiledStyles.get(r);
 
-        if (styles == null || styles.size() == 0) {
-            return getDefaultStyle();
+        if (styles == null) {
+            styles = new CompiledStyles(styleMap.get(r));
+            compiledStyles.put(r, styles);
         }
 
         // Look for the best SynthStyle for this component/region pair.
-        LazyStyle foundStyle = null;
-
-        for (LazyStyle s : styles) {
-
-            if (s.matches(c)) {
-
-                /*
-                 * Replace the foundStyle if foundStyle is null, or if the new
-                 * style "s" is more specific (ie, its path was longer), or if
-                 * the foundStyle was "simple" and the new style was not (ie:
-                 * the foundStyle was for something like Button and the new
-                 * style was for something like "MyButton", hence, being more
-                 * specific). In all cases, favor the most specific style found.
-                 */
-                if (foundStyle == null || (foundStyle.parts.length < s.parts.length)
-                        || (foundStyle.parts.length == s.parts.length && foundStyle.simple && !s.simple)) {
-                    foundStyle = s;
-                }
-            }
-        }
+        LazyStyle foundStyle = styles.find(c);
 
         // return the style, if found, or the default style if not found
         return foundStyle == null ? getDefaultStyle() : foundStyle.getStyle(c);
@@ -2939,19 +3036,62 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
         selectedUI = null;
     }
 
+    /**
+     * Starts warming up the painters once UIManager has finished installing
+     * this look and feel and its defaults, which may happen on another thread
+     * after initialize returns.
+     */
+    private class PainterWarmUpStarter implements Runnable {
+        private final PainterWarmUp warmUp;
+
+        /**
+         * Creates a new PainterWarmUpStarter object.
+         *
+         * @param warmUp the warm-up to start.
+         */
+        PainterWarmUpStarter(PainterWarmUp warmUp) {
+            this.warmUp = warmUp;
+        }
+
+        /**
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+            if (!initialized || painterWarmUp != warmUp) {
+                // Uninstalled, or the warm-up replaced, before it started.
+                return;
+            } else if (UIManager.getLookAndFeel() != SeaGlassLookAndFeel.this || uiDefaults == null
+                    || UIManager.getLookAndFeelDefaults() != uiDefaults) {
+                SwingUtilities.invokeLater(this);
+            } else {
+                warmUp.start(uiDefaults);
+            }
+        }
+    }
+
     /**
      * This class is private because it relies on the constructor of the
      * auto-generated AbstractRegionPainter subclasses. Hence, it is not
      * generally useful, and is private.
      *
      * <p>LazyPainter is a LazyValue class. It will create the
-     * AbstractRegionPainter lazily, when asked. It uses reflection to load the
-     * proper class and invoke its constructor.</p>
+     * AbstractRegionPainter lazily, when asked. It calls the constructor
+     * through {@link PainterFactory}, and only uses reflection to load the
+     * class and invoke its constructor for painters the factory does not
+     * know.</p>
+     *
+     * <p>The painter is created once. Styles resolve the LazyPainter they find
+     * in the defaults themselves, so without this a painter resolved through
+     * the UIDefaults, for instance while warming up, would not be the one the
+     * style paints with, and its cached images would never be used.</p>
      */
     private static final class LazyPainter implements UIDefaults.LazyValue {
         private Enum   which;
         private String className;
 
+        /** The painter, once created. */
+        private volatile Object painter;
+
         /**
          * Creates a new LazyPainter object.
          *
@@ -2973,8 +3113,51 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
         /**
          * @see javax.swing.UIDefaults$LazyValue#createValue(javax.swing.UIDefaults)
          */
-        @SuppressWarnings("unchecked")
         public Object createValue(UIDefaults table) {
+            Object p = painter;
+
+            if (p == null) {
+                synchronized (this) {
+                    p = painter;
+                    if (p == null) {
+                        p       = createPainter(table);
+                        painter = p;
+                    }
+                }
+            }
+
+            return p;
+        }
+
+        /**
+         * Create the painter.
+         *
+         * @param  table the defaults table, used to find a class loader.
+         *
+         * @return the painter, or {@code null} if it could not be created.
+         */
+        private Object createPainter(UIDefaults table) {
+            SeaGlassPainter<?> p = PainterFactory.createPainter(which);
+
+            // The factory creates the painter its state belongs to, so a
+            // LazyPainter naming another class, such as a subclass, is
+            // created by reflection.
+            if (p == null || !p.getClass().getName().equals(className)) {
+                return createPainterByReflection(table);
+            }
+
+            return p;
+        }
+
+        /**
+         * Create a painter the factory does not know, by reflection.
+         *
+         * @param  table the defaults table, used to find a class loader.
+         *
+         * @return the painter, or {@code null} if it could not be created.
+         */
+        @SuppressWarnings("unchecked")
+        private Object createPainterByReflection(UIDefaults table) {
             Constructor constructor = null;
             Object cl = null;
             try {
@@ -3024,6 +3207,200 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
         }
     }
 
+    /**
+     * The LazyStyles registered for one region, indexed so that a component is
+     * only tested against the styles which could match it, with the result
+     * remembered for components that look the same.
+     *
+     * <p>Whether a style matches depends only on the class and name of the
+     * component and of its ancestors, to at most as many levels as the style
+     * has parts. So the chosen style is memoized against those classes and
+     * names. Styles whose last part is a name can only match components with
+     * that name, so each component name has its own list of candidates.</p>
+     */
+    private final class CompiledStyles {
+
+        /** The maximum number of memoized lookups before the memo is reset. */
+        private static final int MAX_MEMO_SIZE = 1024;
+
+        /** The styles whose last part is not a name, in registration order. */
+        private List<LazyStyle> unnamed = new ArrayList<LazyStyle>();
+
+        /**
+         * For each name used as the last part of a style, the styles ending in
+         * that name together with the unnamed styles, in registration order.
+         */
+        private Map<String, List<LazyStyle>> byName = new HashMap<String, List<LazyStyle>>();
+
+        /** The number of parts in the longest style. */
+        private int depth;
+
+        /** The best style found for each component signature. */
+        private Map<StyleKey, LazyStyle> memo = new ConcurrentHashMap<StyleKey, LazyStyle>();
+
+        /**
+         * Creates a new CompiledStyles object.
+         *
+         * @param styles the LazyStyles registered for the region, in
+         *               registration order. May be {@code null}.
+         */
+        CompiledStyles(List<LazyStyle> styles) {
+            if (styles == null) {
+                return;
+            }
+
+            for (LazyStyle s : styles) {
+                depth = Math.max(depth, s.parts.length);
+
+                if (s.parts.length > 0 && s.parts[s.parts.length - 1].named) {
+                    byName.put(s.parts[s.parts.length - 1].s, null);
+                }
+            }
+
+            for (String name : byName.keySet()) {
+                List<LazyStyle> candidates = new ArrayList<LazyStyle>();
+
+                for (LazyStyle s : styles) {
+                    LazyStyle.Part last = s.parts.length > 0 ? s.parts[s.parts.length - 1] : null;
+
+                    if (last == null || !last.named || name.equals(last.s)) {
+                        candidates.add(s);
+                    }
+                }
+
+                byName.put(name, candidates);
+            }
+
+            for (LazyStyle s : styles) {
+
+                if (s.parts.length == 0 || !s.parts[s.parts.length - 1].named) {
+                    unnamed.add(s);
+                }
+            }
+        }
+
+        /**
+         * Find the most specific style matching the component.
+         *
+         * @param  c the component.
+         *
+         * @return the style, or {@code null} if no style matches.
+         */
+        LazyStyle find(JComponent c) {
+            StyleKey key = StyleKey.create(c, depth);
+
+            if (key != null) {
+                LazyStyle style = memo.get(key);
+
+                if (style != null) {
+                    return style;
+                }
+            }
+
+            List<LazyStyle> candidates = c.getName() == null ? null : byName.get(c.getName());
+
+            if (candidates == null) {
+                candidates = unnamed;
+            }
+
+            LazyStyle foundStyle = null;
+
+            for (LazyStyle s : candidates) {
+
+                if (s.matches(c)) {
+
+                    /*
+                     * Replace the foundStyle if foundStyle is null, or if the
+                     * new style "s" is more specific (ie, its path was longer),
+                     * or if the foundStyle was "simple" and the new style was
+                     * not (ie: the foundStyle was for something like Button and
+                     * the new style was for something like "MyButton", hence,
+                     * being more specific). In all cases, favor the most
+                     * specific style found.
+                     */
+                    if (foundStyle == null || (foundStyle.parts.length < s.parts.length)
+                            || (foundStyle.parts.length == s.parts.length && foundStyle.simple && !s.simple)) {
+                        foundStyle = s;
+                    }
+                }
+            }
+
+            if (key != null && foundStyle != null) {
+
+                if (memo.size() >= MAX_MEMO_SIZE) {
+                    memo.clear();
+                }
+
+                memo.put(key, foundStyle);
+            }
+
+            return foundStyle;
+        }
+    }
+
+    /**
+     * The classes and names of a component and its nearest ancestors, which
+     * is everything LazyStyle.matches looks at.
+     */
+    private static final class StyleKey {
+        private Object[] chain;
+        private int      hash;
+
+        /**
+         * Creates a new StyleKey object.
+         *
+         * @param chain the class and name of each component, alternately.
+         */
+        private StyleKey(Object[] chain) {
+            this.chain = chain;
+            this.hash  = Arrays.hashCode(chain);
+        }
+
+        /**
+         * Create the key for a component.
+         *
+         * @param  c     the component.
+         * @param  depth the number of components to include, starting with
+         *               {@code c} and working up its ancestors.
+         *
+         * @return the key, or {@code null} if the match can't be memoized.
+         */
+        static StyleKey create(Component c, int depth) {
+            Object[] chain = new Object[depth * 2];
+
+            for (int i = 0; i < depth && c != null; i++) {
+
+                // Matching an internal frame title pane in a desktop icon
+                // looks at the icon's internal frame rather than its parent.
+                if (c instanceof JInternalFrame.JDesktopIcon) {
+                    return null;
+                }
+
+                chain[i * 2]     = c.getClass();
+                chain[i * 2 + 1] = c.getName();
+                c                = c.getParent();
+            }
+
+            return new StyleKey(chain);
+        }
+
+        /**
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StyleKey && hash == ((StyleKey) obj).hash && Arrays.equals(chain, ((StyleKey) obj).chain);
+        }
+    }
+
     /**
      * A class which creates the SeaGlassStyle associated with it lazily, but
      * also manages a lot more information about the style. It is less of a
@@ -3116,13 +3493,14 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
         }
 
         /**
-         * Gets the style. Creates it if necessary.
+         * Gets the style. Creates it if necessary. Synchronized, since
+         * components may be created on more than one thread.
          *
          * @param  c the component for which to get the style.
          *
          * @return the style
          */
-        SynthStyle getStyle(JComponent c) {
+        synchronized SynthStyle getStyle(JComponent c) {
             // If the component has overrides, it gets its own unique style
             // instead of the shared style.
             if (c.getClientProperty("SeaGlass.Overrides") != null) {
@@ -3433,7 +3811,111 @@ public class SeaGlassLookAndFeel extends SynthLookAndFeel {
                 color = new DerivedColor(parentUin, hOffset, sOffset,
                     bOffset, aOffset);
             }
-            return color;
+
+            synchronized (derivedColors) {
+                DerivedColor shared = derivedColors.get(color);
+                if (shared == null) {
+                    shared = color;
+                    derivedColors.put(shared, shared);
+                    addToList(derivedColorsByParent, parentUin, shared);
+                }
+                if (uin != null) {
+                    List<String> names = derivedColorNamesByParent.get(parentUin);
+                    if (names == null || !names.contains(uin)) {
+                        addToList(derivedColorNamesByParent, parentUin, uin);
+                    }
+                }
+                return shared;
+            }
+        }
+
+        /**
+         * Add a value to the list stored under a key, creating the list if
+         * necessary.
+         *
+         * @param map   the map of lists.
+         * @param key   the key.
+         * @param value the value to add.
+         */
+        private static <T> void addToList(Map<String, List<T>> map, String key, T value) {
+            List<T> list = map.get(key);
+            if (list == null) {
+                list = new ArrayList<T>();
+                map.put(key, list);
+            }
+            list.add(value);
+        }
+
+        /**
+         * Re-derive the shared derived colors which depend, directly or through
+         * other derived colors, on the named UIDefaults colors. All affected
+         * colors are invalidated before any is re-derived, so each is computed
+         * once, from up to date parents, whatever order they are visited in.
+         *
+         * @param parentUins the names of the changed colors, or {@code null} if
+         *                   any color may have changed.
+         */
+        private void rederiveColors(Collection<String> parentUins) {
+            List<DerivedColor> affected = new ArrayList<DerivedColor>();
+
+            synchronized (derivedColors) {
+                if (parentUins == null) {
+                    affected.addAll(derivedColors.keySet());
+                } else {
+                    Set<String> visited = new HashSet<String>();
+                    LinkedList<String> pending = new LinkedList<String>(parentUins);
+
+                    while (!pending.isEmpty()) {
+                        String name = pending.removeFirst();
+                        if (!visited.add(name)) {
+                            continue;
+                        }
+                        List<DerivedColor> colors = derivedColorsByParent.get(name);
+                        if (colors != null) {
+                            affected.addAll(colors);
+                        }
+                        List<String> names = derivedColorNamesByParent.get(name);
+                        if (names != null) {
+                            pending.addAll(names);
+                        }
+                    }
+                }
+            }
+
+            if (affected.isEmpty()) {
+                return;
+            }
+
+            for (DerivedColor color : affected) {
+                color.invalidate();
+            }
+            for (DerivedColor color : affected) {
+                color.getRGB();
+            }
+
+            // Cached painter images were drawn with the old colors.
+            ImageCache.getInstance().flush();
+        }
+
+        /**
+         * Listens to the UIDefaults and re-derives the shared derived colors
+         * when a color they depend on changes.
+         */
+        private class DerivedColorUpdater implements PropertyChangeListener {
+
+            /**
+             * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
+             */
+            public void propertyChange(PropertyChangeEvent evt) {
+                String key = evt.getPropertyName();
+
+                if (key == null || "UIDefaults".equals(key)) {
+                    // A bulk change such as putDefaults(): check everything.
+                    rederiveColors(null);
+                } else if (evt.getNewValue() == null || evt.getNewValue() instanceof Color) {
+                    rederiveColors(Collections.singleton(key));
+                }
+            }
         }
 
         /**
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.seaglasslookandfeel.util.ImageCache;
+
+/**
+ * Paint statistics, to find out why a screen is slow: per painter class and
+ * state paint, render and image cache counts and render times, image cache
+ * occupancy, style cache hit rates and context pool use.
+ *
+ * <p>Painters, styles, the image cache and the context pool only count while
+ * statistics are enabled, so that when they are not the cost is one volatile
+ * read per paint or lookup. Enable them with {@link #setEnabled(boolean)}, or
+ * by starting with {@code -DSeaGlass.statistics=true}, which also registers
+ * the MBean when the look and feel is installed.</p>
+ *
+ * <p>Read the statistics with {@link #getSnapshot()}, or through the platform
+ * MBean server once {@link #registerMBean()} has been called.</p>
+ */
+public final class SeaGlassStatistics implements SeaGlassStatisticsMBean {
+
+    /** The name the MBean is registered under. */
+    public static final String OBJECT_NAME = "com.seaglasslookandfeel:type=Statistics";
+
+    private static volatile boolean enabled = Boolean.getBoolean("SeaGlass.statistics");
+
+    /** The painter statistics, by painter class and state. */
+    private static final ConcurrentHashMap<String, PainterStatistics> painters = new ConcurrentHashMap<String, PainterStatistics>();
+
+    private static final AtomicLong styleCacheHitCount  = new AtomicLong();
+    private static final AtomicLong styleCacheMissCount = new AtomicLong();
+
+    /** Orders painters by render time, slowest first. */
+    private static final Comparator<PainterStatistics> SLOWEST_FIRST = new Comparator<PainterStatistics>() {
+        public int compare(PainterStatistics a, PainterStatistics b) {
+            long x = a.getRenderNanos();
+            long y = b.getRenderNanos();
+
+            return x > y ? -1 : (x < y ? 1 : a.getName().compareTo(b.getName()));
+        }
+    };
+
+    /** The registered MBean, if any. */
+    private static ObjectName registeredName;
+
+    /**
+     * Creates a new SeaGlassStatistics object. There is only the one
+     * registered as the MBean.
+     */
+    private SeaGlassStatistics() {
+    }
+
+    /**
+     * Returns {@code true} if statistics are being counted.
+     *
+     * @return whether statistics are enabled.
+     */
+    public static boolean isStatisticsEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start or stop counting statistics. The counts so far are
+     * kept.
+     *
+     * @param enabled whether statistics are enabled.
+     */
+    public static void setStatisticsEnabled(boolean enabled) {
+        SeaGlassStatistics.enabled = enabled;
+    }
+
+    /**
+     * Get the statistics for a painter class and state, creating them the
+     * first time.
+     *
+     * @param  name the painter class and state, such as
+     *              "ButtonPainter.BACKGROUND_ENABLED".
+     *
+     * @return the statistics, shared by every painter with this name.
+     */
+    public static PainterStatistics getPainterStatistics(String name) {
+        PainterStatistics statistics = painters.get(name);
+
+        if (statistics == null) {
+            PainterStatistics created = new PainterStatistics(name);
+
+            statistics = painters.putIfAbsent(name, created);
+            if (statistics == null) {
+                statistics = created;
+            }
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Record a style lookup. Called by SeaGlassStyle while statistics are
+     * enabled.
+     *
+     * @param hit {@code true} if the style's cache answered it.
+     */
+    static void recordStyleLookup(boolean hit) {
+        (hit ? styleCacheHitCount : styleCacheMissCount).incrementAndGet();
+    }
+
+    /**
+     * Take a copy of all the statistics as they are now.
+     *
+     * @return the snapshot.
+     */
+    public static Snapshot getSnapshot() {
+        return new Snapshot();
+    }
+
+    /**
+     * Set all counts to zero, including the image cache and context pool
+     * counts.
+     */
+    public static void resetStatistics() {
+        for (PainterStatistics statistics : painters.values()) {
+            statistics.reset();
+        }
+
+        styleCacheHitCount.set(0);
+        styleCacheMissCount.set(0);
+        ImageCache.getInstance().resetStatistics();
+        SeaGlassContext.resetPoolStatistics();
+    }
+
+    /**
+     * Register the statistics with the platform MBean server as
+     * {@value #OBJECT_NAME}, if they are not registered already.
+     *
+     * @return {@code true} if the MBean is registered, {@code false} if it
+     *         could not be.
+     */
+    public static synchronized boolean registerMBean() {
+        if (registeredName != null) {
+            return true;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName  name   = new ObjectName(OBJECT_NAME);
+
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new SeaGlassStatistics(), name);
+            }
+
+            registeredName = name;
+
+            return true;
+        } catch (JMException e) {
+            return false;
+        } catch (SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Remove the statistics from the platform MBean server, if this class
+     * registered them.
+     */
+    public static synchronized void unregisterMBean() {
+        if (registeredName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            // Already gone.
+        }
+
+        registeredName = null;
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#isEnabled()
+     */
+    public boolean isEnabled() {
+        return isStatisticsEnabled();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#setEnabled(boolean)
+     */
+    public void setEnabled(boolean enabled) {
+        setStatisticsEnabled(enabled);
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getImageCacheHitCount()
+     */
+    public long getImageCacheHitCount() {
+        return ImageCache.getInstance().getHitCount();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getImageCacheMissCount()
+     */
+    public long getImageCacheMissCount() {
+        return ImageCache.getInstance().getMissCount();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getImageCacheEvictionCount()
+     */
+    public long getImageCacheEvictionCount() {
+        return ImageCache.getInstance().getEvictionCount();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getImageCachePixelCount()
+     */
+    public int getImageCachePixelCount() {
+        return ImageCache.getInstance().getPixelCount();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getImageCacheMaxPixelCount()
+     */
+    public int getImageCacheMaxPixelCount() {
+        return ImageCache.getInstance().getMaxPixelCount();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getImageCacheSize()
+     */
+    public int getImageCacheSize() {
+        return ImageCache.getInstance().size();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getStyleCacheHitCount()
+     */
+    public long getStyleCacheHitCount() {
+        return styleCacheHitCount.get();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getStyleCacheMissCount()
+     */
+    public long getStyleCacheMissCount() {
+        return styleCacheMissCount.get();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getContextPoolHitCount()
+     */
+    public long getContextPoolHitCount() {
+        return SeaGlassContext.getPoolHitCount();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getContextPoolMissCount()
+     */
+    public long getContextPoolMissCount() {
+        return SeaGlassContext.getPoolMissCount();
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#getPainterStatistics()
+     */
+    public String[] getPainterStatistics() {
+        List<PainterStatistics> list  = getSnapshot().getPainters();
+        String[]                lines = new String[list.size()];
+
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = list.get(i).toString();
+        }
+
+        return lines;
+    }
+
+    /**
+     * @see com.seaglasslookandfeel.SeaGlassStatisticsMBean#reset()
+     */
+    public void reset() {
+        resetStatistics();
+    }
+
+    /**
+     * A copy of the statistics at one moment. The painter counts are copied
+     * one painter at a time, so painting on other threads may make them
+     * slightly inconsistent with each other.
+     */
+    public static final class Snapshot {
+        private final long                    time;
+        private final List<PainterStatistics> painters;
+        private final long                    imageCacheHitCount;
+        private final long                    imageCacheMissCount;
+        private final long                    imageCacheEvictionCount;
+        private final int                     imageCachePixelCount;
+        private final int                     imageCacheMaxPixelCount;
+        private final int                     imageCacheSize;
+        private final long                    styleCacheHitCount;
+        private final long                    styleCacheMissCount;
+        private final long                    contextPoolHitCount;
+        private final long                    contextPoolMissCount;
+
+        /**
+         * Creates a new Snapshot object holding the current statistics.
+         */
+        private Snapshot() {
+            ImageCache              imageCache = ImageCache.getInstance();
+            List<PainterStatistics> list       = new ArrayList<PainterStatistics>();
+
+            for (PainterStatistics statistics : SeaGlassStatistics.painters.values()) {
+                list.add(statistics.copy());
+            }
+
+            Collections.sort(list, SLOWEST_FIRST);
+
+            time                    = System.currentTimeMillis();
+            painters                = Collections.unmodifiableList(list);
+            imageCacheHitCount      = imageCache.getHitCount();
+            imageCacheMissCount     = imageCache.getMissCount();
+            imageCacheEvictionCount = imageCache.getEvictionCount();
+            imageCachePixelCount    = imageCache.getPixelCount();
+            imageCacheMaxPixelCount = imageCache.getMaxPixelCount();
+            imageCacheSize          = imageCache.size();
+            styleCacheHitCount      = SeaGlassStatistics.styleCacheHitCount.get();
+            styleCacheMissCount     = SeaGlassStatistics.styleCacheMissCount.get();
+            contextPoolHitCount     = SeaGlassContext.getPoolHitCount();
+            contextPoolMissCount    = SeaGlassContext.getPoolMissCount();
+        }
+
+        /**
+         * @return the time the snapshot was taken, in milliseconds since the
+         *         epoch.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * @return the statistics of each painter class and state, the slowest
+         *         first.
+         */
+        public List<PainterStatistics> getPainters() {
+            return painters;
+        }
+
+        /**
+         * @return the number of image cache lookups which found an image.
+         */
+        public long getImageCacheHitCount() {
+            return imageCacheHitCount;
+        }
+
+        /**
+         * @return the number of image cache lookups which found no image.
+         */
+        public long getImageCacheMissCount() {
+            return imageCacheMissCount;
+        }
+
+        /**
+         * @return the number of images evicted from the image cache.
+         */
+        public long getImageCacheEvictionCount() {
+            return imageCacheEvictionCount;
+        }
+
+        /**
+         * @return the number of pixels held by the image cache.
+         */
+        public int getImageCachePixelCount() {
+            return imageCachePixelCount;
+        }
+
+        /**
+         * @return the number of pixels the image cache may hold.
+         */
+        public int getImageCacheMaxPixelCount() {
+            return imageCacheMaxPixelCount;
+        }
+
+        /**
+         * @return the number of images in the image cache.
+         */
+        public int getImageCacheSize() {
+            return imageCacheSize;
+        }
+
+        /**
+         * @return the number of style lookups answered from a style's cache.
+         */
+        public long getStyleCacheHitCount() {
+            return styleCacheHitCount;
+        }
+
+        /**
+         * @return the number of style lookups which had to search the
+         *         defaults.
+         */
+        public long getStyleCacheMissCount() {
+            return styleCacheMissCount;
+        }
+
+        /**
+         * @return the number of contexts reused from a pool.
+         */
+        public long getContextPoolHitCount() {
+            return contextPoolHitCount;
+        }
+
+        /**
+         * @return the number of contexts which had to be created.
+         */
+        public long getContextPoolMissCount() {
+            return contextPoolMissCount;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            StringBuilder b = new StringBuilder();
+
+            b.append(String.format("Image cache: %d images, %d of %d pixels, %d hits, %d misses, %d evictions%n", imageCacheSize,
+                                   imageCachePixelCount, imageCacheMaxPixelCount, imageCacheHitCount, imageCacheMissCount,
+                                   imageCacheEvictionCount));
+            b.append(String.format("Style cache: %d hits, %d misses%n", styleCacheHitCount, styleCacheMissCount));
+            b.append(String.format("Context pool: %d hits, %d misses%n", contextPoolHitCount, contextPoolMissCount));
+
+            for (PainterStatistics statistics : painters) {
+                b.append(statistics).append(String.format("%n"));
+            }
+
+            return b.toString();
+        }
+    }
+}
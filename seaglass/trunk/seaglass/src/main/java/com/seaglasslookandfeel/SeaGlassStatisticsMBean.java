@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel;
+
+/**
+ * The management interface of {@link SeaGlassStatistics}, registered as
+ * {@value SeaGlassStatistics#OBJECT_NAME}.
+ */
+public interface SeaGlassStatisticsMBean {
+
+    /**
+     * Returns {@code true} if statistics are being counted.
+     *
+     * @return whether statistics are enabled.
+     */
+    boolean isEnabled();
+
+    /**
+     * Start or stop counting statistics.
+     *
+     * @param enabled whether statistics are enabled.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return the number of image cache lookups which found an image.
+     */
+    long getImageCacheHitCount();
+
+    /**
+     * @return the number of image cache lookups which found no image.
+     */
+    long getImageCacheMissCount();
+
+    /**
+     * @return the number of images evicted from the image cache.
+     */
+    long getImageCacheEvictionCount();
+
+    /**
+     * @return the number of pixels held by the image cache.
+     */
+    int getImageCachePixelCount();
+
+    /**
+     * @return the number of pixels the image cache may hold.
+     */
+    int getImageCacheMaxPixelCount();
+
+    /**
+     * @return the number of images in the image cache.
+     */
+    int getImageCacheSize();
+
+    /**
+     * @return the number of style lookups answered from a style's cache.
+     */
+    long getStyleCacheHitCount();
+
+    /**
+     * @return the number of style lookups which had to search the defaults.
+     */
+    long getStyleCacheMissCount();
+
+    /**
+     * @return the number of contexts reused from a pool.
+     */
+    long getContextPoolHitCount();
+
+    /**
+     * @return the number of contexts which had to be created.
+     */
+    long getContextPoolMissCount();
+
+    /**
+     * @return one line per painter class and state, the slowest first.
+     */
+    String[] getPainterStatistics();
+
+    /**
+     * Set all counts to zero.
+     */
+    void reset();
+}
@@ -32,13 +32,16 @@ import java.awt.Font;
 import java.awt.Insets;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JComponent;
 import javax.swing.UIDefaults;
@@ -184,6 +187,13 @@ public class SeaGlassStyle extends SynthStyle {
      */
     private static final Object NULL = '\0';
 
+    /**
+     * The maximum number of parsed "SeaGlass.State" values to keep for each
+     * style. They are normally a handful of fixed strings, so this only stops
+     * a program generating them from growing the cache without bound.
+     */
+    private static final int MAX_FORCED_STATES = 64;
+
     /**
      * Simple Comparator for ordering the RuntimeStates according to their rank.
      */
@@ -193,8 +203,16 @@ public class SeaGlassStyle extends SynthStyle {
         }
     };
 
-    /** Shared SynthGraphics. */
-    private static final SynthGraphicsUtils SEAGLASS_GRAPHICS = new SeaGlassGraphicsUtils();
+    /**
+     * Shared SynthGraphics. They keep scratch rectangles for laying out text,
+     * so each painting thread gets its own.
+     */
+    private static final ThreadLocal<SynthGraphicsUtils> SEAGLASS_GRAPHICS = new ThreadLocal<SynthGraphicsUtils>() {
+        @Override
+        protected SynthGraphicsUtils initialValue() {
+            return new SeaGlassGraphicsUtils();
+        }
+    };
 
     /**
      * <p>The Color to return from getColorForState if it would otherwise have
@@ -232,13 +250,34 @@ public class SeaGlassStyle extends SynthStyle {
      * properties of a component. These values are lazily created on first
      * access.
      */
-    private Values values;
+    private volatile Values values;
 
     /**
      * A temporary CacheKey used to perform lookups. This pattern avoids
-     * creating useless garbage keys, or concatenating strings, etc.
+     * creating useless garbage keys, or concatenating strings, etc. Styles are
+     * shared between components, so each painting thread gets its own key.
      */
-    private CacheKey tmpKey = new CacheKey("", 0);
+    private static final ThreadLocal<CacheKey> tmpKey = new ThreadLocal<CacheKey>() {
+        @Override
+        protected CacheKey initialValue() {
+            return new CacheKey("", 0);
+        }
+    };
+
+    /**
+     * Guards the compiled defaults and the registry of styles, so that styles
+     * may be validated on any thread which paints.
+     */
+    private static final Object DEFAULTS_LOCK = new Object();
+
+    /** The app context key of the compiled defaults and style registry. */
+    private static final String DEFAULTS_KEY = "SeaGlassStyle.defaults";
+
+    /**
+     * Whether this style has been added to the registry of styles whose values
+     * are invalidated when the UIDefaults for their prefix change.
+     */
+    private boolean registered;
 
     /**
      * Some SeaGlassStyles are created for a specific component only. In
@@ -276,7 +315,7 @@ public class SeaGlassStyle extends SynthStyle {
      * @return SynthGraphicsUtils
      */
     public SynthGraphicsUtils getGraphicsUtils(SynthContext context) {
-        return SEAGLASS_GRAPHICS;
+        return SEAGLASS_GRAPHICS.get();
     }
 
     /**
@@ -350,37 +389,81 @@ public class SeaGlassStyle extends SynthStyle {
      * uninstalled. Performs general cleanup of any app-context specific data.
      */
     static void uninitialize() {
-        // get the appcontext that we've stored data in
-        AppContext ctx = AppContext.getAppContext();
+        synchronized (DEFAULTS_LOCK) {
+            // get the data we've stored in the app context
+            AppContextDefaults data = getAppContextDefaults();
+
+            // if the pcl exists, uninstall it from the UIDefaults tables
+            if (data.listener != null) {
+                UIManager.getDefaults().removePropertyChangeListener(data.listener);
+                UIManager.getLookAndFeelDefaults().removePropertyChangeListener(data.listener);
+            }
 
-        // get the pcl stored in app context
-        PropertyChangeListener pcl = (PropertyChangeListener) ctx.get("SeaGlassStyle.defaults.pcl");
+            // clear out the compiled defaults
+            data.compiledDefaults = null;
+            data.styles.clear();
+        }
+    }
 
-        // if the pcl exists, uninstall it from the UIDefaults tables
-        if (pcl != null) {
-            UIManager.getDefaults().removePropertyChangeListener(pcl);
-            UIManager.getLookAndFeelDefaults().removePropertyChangeListener(pcl);
+    /**
+     * Returns the compiled defaults and style registry of the current app
+     * context, creating them if necessary. Must be called holding
+     * DEFAULTS_LOCK.
+     *
+     * @return the app context's defaults.
+     */
+    private static AppContextDefaults getAppContextDefaults() {
+        AppContext         ctx  = AppContext.getAppContext();
+        AppContextDefaults data = (AppContextDefaults) ctx.get(DEFAULTS_KEY);
+
+        if (data == null) {
+            data = new AppContextDefaults();
+            ctx.put(DEFAULTS_KEY, data);
         }
 
-        // clear out the compiled defaults
-        ctx.put("SeaGlassStyle.defaults", null);
+        return data;
     }
 
     /**
      * Pulls data out of UIDefaults, if it has not done so already, and sets up
      * the internal state.
+     *
+     * @return the values.
      */
-    private void validate() {
+    private Values validate() {
         // a non-null values object is the flag we use to determine whether
         // to reparse from UIManager.
-        if (values != null)
-            return;
+        Values v = values;
+
+        if (v != null)
+            return v;
+
+        synchronized (DEFAULTS_LOCK) {
+            v = values;
 
+            if (v == null) {
+                // Only publish the values once they are complete, so other
+                // painting threads never see them half built.
+                v = new Values();
+                validate(v);
+                values = v;
+            }
+        }
+
+        return v;
+    }
+
+    /**
+     * Populates the given values from the UIDefaults. Must be called holding
+     * DEFAULTS_LOCK.
+     *
+     * @param values the values to initialize.
+     */
+    private void validate(Values values) {
         // reconstruct this SeaGlassStyle based on the entries in the UIManager
         // and possibly based on any overrides within the component's
         // client properties (assuming such a component exists and contains
         // any SeaGlass.Overrides)
-        values = new Values();
 
         // the profiler revealed that a great deal of CPU time and useless
         // garbage was being produced by this method and the init method. One
@@ -390,11 +473,11 @@ public class SeaGlassStyle extends SynthStyle {
         // To remove this bottleneck, we store the compiled TreeMaps of defaults
         // in the appContext for reuse. It is nulled whenever the UIDefaults
         // changes and recomputed when necessary.
-        final AppContext ctx = AppContext.getAppContext();
+        final AppContextDefaults data = getAppContextDefaults();
 
         // fetch the defaults from the app context. If null, then create and
         // store the compiled defaults
-        Map<String, TreeMap<String, Object>> compiledDefaults = (Map<String, TreeMap<String, Object>>) ctx.get("SeaGlassStyle.defaults");
+        Map<String, TreeMap<String, Object>> compiledDefaults = data.compiledDefaults;
 
         if (compiledDefaults == null) {
 
@@ -415,7 +498,7 @@ public class SeaGlassStyle extends SynthStyle {
 
             // if it has not already been done, add a listener to both
             // UIManager.getDefaults() and UIManager.getLookAndFeelDefaults().
-            PropertyChangeListener pcl = (PropertyChangeListener) ctx.get("SeaGlassStyle.defaults.pcl");
+            PropertyChangeListener pcl = data.listener;
 
             // if pcl is null, then it has not yet been registered with
             // the UIManager defaults for this app context
@@ -436,11 +519,16 @@ public class SeaGlassStyle extends SynthStyle {
                 // save the PCL to the app context as a marker indicating
                 // that the PCL has been registered so we don't end up adding
                 // more than one listener to the UIDefaults tables.
-                ctx.put("SeaGlassStyle.defaults.pcl", pcl);
+                data.listener = pcl;
             }
 
             // store the defaults for reuse
-            ctx.put("SeaGlassStyle.defaults", compiledDefaults);
+            data.compiledDefaults = compiledDefaults;
+        }
+
+        if (!registered) {
+            registerStyle(data, this);
+            registered = true;
         }
 
         TreeMap<String, Object> defaults = compiledDefaults.get(prefix);
@@ -473,6 +561,9 @@ public class SeaGlassStyle extends SynthStyle {
                 }
 
                 if (inherit) {
+                    // Copy first: the compiled defaults are shared by every
+                    // style with this prefix.
+                    defaults = new TreeMap<String, Object>(defaults);
                     defaults.putAll(map);
                 } else {
                     defaults = map;
@@ -521,6 +612,57 @@ public class SeaGlassStyle extends SynthStyle {
         }
     }
 
+    /**
+     * Adds a style to the registry of validated styles for its prefix, so that
+     * its values can be discarded when the defaults for that prefix change.
+     *
+     * @param data  the app context's defaults, holding the registry.
+     * @param style the style.
+     */
+    private static void registerStyle(AppContextDefaults data, SeaGlassStyle style) {
+        List<WeakReference<SeaGlassStyle>> list = data.styles.get(style.prefix);
+
+        if (list == null) {
+            list = new ArrayList<WeakReference<SeaGlassStyle>>();
+            data.styles.put(style.prefix, list);
+        }
+
+        // Drop styles which have been garbage collected.
+        for (Iterator<WeakReference<SeaGlassStyle>> i = list.iterator(); i.hasNext();) {
+
+            if (i.next().get() == null) {
+                i.remove();
+            }
+        }
+
+        list.add(new WeakReference<SeaGlassStyle>(style));
+    }
+
+    /**
+     * Discards the values of the registered styles with the given prefix, or
+     * of all registered styles, so they are rebuilt from the UIDefaults when
+     * next used.
+     *
+     * @param data   the app context's defaults, holding the registry.
+     * @param prefix the prefix, or {@code null} for all styles.
+     */
+    private static void invalidateStyles(AppContextDefaults data, String prefix) {
+        for (Map.Entry<String, List<WeakReference<SeaGlassStyle>>> entry : data.styles.entrySet()) {
+
+            if (prefix != null && !prefix.equals(entry.getKey())) {
+                continue;
+            }
+
+            for (WeakReference<SeaGlassStyle> ref : entry.getValue()) {
+                SeaGlassStyle style = ref.get();
+
+                if (style != null) {
+                    style.values = null;
+                }
+            }
+        }
+    }
+
     /**
      * Initializes the given <code>Values</code> object with the defaults
      * contained in the given TreeMap.
@@ -577,6 +719,17 @@ public class SeaGlassStyle extends SynthStyle {
             // standard synth states).
             if (states.size() > 0) {
                 v.stateTypes = states.toArray(new State[states.size()]);
+
+                // remember the synth code of each standard state, so these
+                // can be checked without calling isInState
+                v.stateTypeCodes = new int[v.stateTypes.length];
+
+                for (int i = 0; i < v.stateTypes.length; i++) {
+
+                    if (v.stateTypes[i] instanceof State.StandardState) {
+                        v.stateTypeCodes[i] = ((State.StandardState) v.stateTypes[i]).getState();
+                    }
+                }
             }
 
             // assign codes for each of the state types
@@ -997,10 +1150,13 @@ public class SeaGlassStyle extends SynthStyle {
         int    xstate = getExtendedState(ctx, v);
 
         // check the cache
-        tmpKey.init(partialKey, xstate);
-        obj = v.cache.get(tmpKey);
+        obj = v.cache.get(tmpKey.get().init(partialKey, xstate));
         boolean wasInCache = obj != null;
 
+        if (SeaGlassStatistics.isStatisticsEnabled()) {
+            SeaGlassStatistics.recordStyleLookup(wasInCache);
+        }
+
         if (!wasInCache) {
 
             // Search exact matching states and then lesser matching states
@@ -1050,8 +1206,7 @@ public class SeaGlassStyle extends SynthStyle {
         SeaGlassPainter p      = null;
 
         // check the cache
-        tmpKey.init("backgroundPainter$$instance", xstate);
-        p = (SeaGlassPainter) v.cache.get(tmpKey);
+        p = (SeaGlassPainter) v.cache.get(tmpKey.get().init("backgroundPainter$$instance", xstate));
 
         if (p != null)
             return p;
@@ -1095,8 +1250,7 @@ public class SeaGlassStyle extends SynthStyle {
         SeaGlassPainter p      = null;
 
         // check the cache
-        tmpKey.init("foregroundPainter$$instance", xstate);
-        p = (SeaGlassPainter) v.cache.get(tmpKey);
+        p = (SeaGlassPainter) v.cache.get(tmpKey.get().init("foregroundPainter$$instance", xstate));
 
         if (p != null)
             return p;
@@ -1140,8 +1294,7 @@ public class SeaGlassStyle extends SynthStyle {
         SeaGlassPainter p      = null;
 
         // check the cache
-        tmpKey.init("borderPainter$$instance", xstate);
-        p = (SeaGlassPainter) v.cache.get(tmpKey);
+        p = (SeaGlassPainter) v.cache.get(tmpKey.get().init("borderPainter$$instance", xstate));
 
         if (p != null)
             return p;
@@ -1179,34 +1332,70 @@ public class SeaGlassStyle extends SynthStyle {
      * @return a non-null values reference
      */
     private Values getValues(SynthContext ctx) {
-        validate();
-
-        return values;
+        return validate();
     }
 
     /**
-     * Simple utility method that searchs the given array of Strings for the
-     * given string. This method is only called from getExtendedState if the
-     * developer has specified a specific state for the component to be in (ie,
-     * has "wedged" the component in that state) by specifying they client
-     * property "SeaGlass.State".
+     * Returns the extended state for a "SeaGlass.State" client property value.
+     * This method is only called from getExtendedState if the developer has
+     * specified a specific state for the component to be in (ie, has "wedged"
+     * the component in that state).
+     *
+     * <p>The parsed state is cached on the values, so each distinct state
+     * string is only parsed once.</p>
      *
-     * @param  names a non-null array of strings
-     * @param  name  the name to look for in the array
+     * @param  stateNames the state names, separated by "+".
+     * @param  v          the values holding the state types.
      *
-     * @return true or false based on whether the given name is in the array
+     * @return the extended state.
      */
-    private boolean contains(String[] names, String name) {
-        assert name != null;
+    private int getForcedState(String stateNames, Values v) {
+        Integer cached = v.forcedStates.get(stateNames);
 
-        for (int i = 0; i < names.length; i++) {
+        if (cached != null) {
+            return cached;
+        }
+
+        int xstate = 0;
+        int start  = 0;
+
+        while (start <= stateNames.length()) {
+            int end = stateNames.indexOf('+', start);
+
+            if (end < 0) {
+                end = stateNames.length();
+            }
+
+            String stateStr = stateNames.substring(start, end);
+
+            if (v.stateTypes == null) {
+
+                // standard states only
+                State.StandardState s = State.getStandardState(stateStr);
+
+                if (s != null)
+                    xstate |= s.getState();
+            } else {
+
+                // custom states
+                for (int i = 0; i < v.stateTypes.length; i++) {
 
-            if (name.equals(names[i])) {
-                return true;
+                    if (stateStr.equals(v.stateTypes[i].getName())) {
+                        xstate |= 1 << i;
+                    }
+                }
             }
+
+            start = end + 1;
+        }
+
+        if (v.forcedStates.size() >= MAX_FORCED_STATES) {
+            v.forcedStates.clear();
         }
 
-        return false;
+        v.forcedStates.put(stateNames, xstate);
+
+        return xstate;
     }
 
     /**
@@ -1248,30 +1437,7 @@ public class SeaGlassStyle extends SynthStyle {
         Object property = c.getClientProperty("SeaGlass.State");
 
         if (property != null) {
-            String   stateNames = property.toString();
-            String[] states     = stateNames.split("\\+");
-
-            if (v.stateTypes == null) {
-
-                // standard states only
-                for (String stateStr : states) {
-                    State.StandardState s = State.getStandardState(stateStr);
-
-                    if (s != null)
-                        xstate |= s.getState();
-                }
-            } else {
-
-                // custom states
-                for (State s : v.stateTypes) {
-
-                    if (contains(states, s.getName())) {
-                        xstate |= mask;
-                    }
-
-                    mask <<= 1;
-                }
-            }
+            return getForcedState(property.toString(), v);
         } else {
 
             // if there are no custom states defined, then simply return the
@@ -1281,11 +1447,13 @@ public class SeaGlassStyle extends SynthStyle {
 
             // there are custom states on this values, so I'll have to iterate
             // over them all and return a custom extended state
-            int state = ctx.getComponentState();
+            int   state = ctx.getComponentState();
+            int[] codes = v.stateTypeCodes;
 
-            for (State s : v.stateTypes) {
+            for (int i = 0; i < codes.length; i++) {
+                int code = codes[i];
 
-                if (s.isInState(c, state)) {
+                if (code != 0 ? (state & code) == code : v.stateTypes[i].isInState(c, state)) {
                     xstate |= mask;
                 }
 
@@ -1508,7 +1676,19 @@ public class SeaGlassStyle extends SynthStyle {
          *
          * <p>foo.bar$$2353</p>
          */
-        Map<CacheKey, Object> cache = new HashMap<CacheKey, Object>();
+        Map<CacheKey, Object> cache = new ConcurrentHashMap<CacheKey, Object>();
+
+        /**
+         * The synth state code of each of the stateTypes, or 0 for a custom
+         * state. Null whenever stateTypes is null.
+         */
+        int[] stateTypeCodes = null;
+
+        /**
+         * The extended states of the "SeaGlass.State" client property values
+         * seen so far, keyed by the property value.
+         */
+        Map<String, Integer> forcedStates = new ConcurrentHashMap<String, Integer>();
     }
 
     /**
@@ -1532,12 +1712,16 @@ public class SeaGlassStyle extends SynthStyle {
         /**
          * Initialize the CacheKey object with its values.
          *
-         * @param key    the key.
-         * @param xstate the extended state.
+         * @param  key    the key.
+         * @param  xstate the extended state.
+         *
+         * @return this key.
          */
-        void init(Object key, int xstate) {
+        CacheKey init(Object key, int xstate) {
             this.key    = key.toString();
             this.xstate = xstate;
+
+            return this;
         }
 
         /**
@@ -1574,8 +1758,14 @@ public class SeaGlassStyle extends SynthStyle {
     }
 
     /**
-     * This listener is used to listen to the UIDefaults tables and clear out
-     * the cached-precompiled map of defaults in that case.
+     * This listener is used to listen to the UIDefaults tables and keep the
+     * cached-precompiled map of defaults up to date.
+     *
+     * <p>A changed key only affects the compiled map for its own prefix, and
+     * the styles with that prefix, so only those are updated. Keys without a
+     * prefix, such as the base colors, are not compiled at all. Removals and
+     * bulk changes still clear the whole map, to be recompiled when next
+     * needed.</p>
      */
     private static final class DefaultsListener implements PropertyChangeListener {
 
@@ -1583,7 +1773,72 @@ public class SeaGlassStyle extends SynthStyle {
          * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
          */
         public void propertyChange(PropertyChangeEvent evt) {
-            AppContext.getAppContext().put("SeaGlassStyle.defaults", null);
+            synchronized (DEFAULTS_LOCK) {
+                AppContextDefaults data = getAppContextDefaults();
+                String             key  = evt.getPropertyName();
+
+                if (key == null || "UIDefaults".equals(key)) {
+                    // putDefaults() or similar: anything may have changed.
+                    data.compiledDefaults = null;
+                    invalidateStyles(data, null);
+
+                    return;
+                }
+
+                String prefix = parsePrefix(key);
+
+                if (prefix == null) {
+                    // Not compiled, so nothing depends on it.
+                    return;
+                }
+
+                Map<String, TreeMap<String, Object>> compiledDefaults = data.compiledDefaults;
+
+                if (compiledDefaults != null) {
+                    Object value = evt.getNewValue();
+
+                    if (value == null) {
+                        // The key may still have a value in the other table, so
+                        // recompile from scratch.
+                        data.compiledDefaults = null;
+                    } else if (evt.getSource() == UIManager.getDefaults() && UIManager.getLookAndFeelDefaults().containsKey(key)) {
+                        // The look and feel defaults are compiled last, so their
+                        // value still wins.
+                        return;
+                    } else {
+                        TreeMap<String, Object> map = compiledDefaults.get(prefix);
+
+                        if (map == null) {
+                            map = new TreeMap<String, Object>();
+                            compiledDefaults.put(prefix, map);
+                        }
+
+                        map.put(key, value);
+                    }
+                }
+
+                invalidateStyles(data, prefix);
+            }
         }
     }
+
+    /**
+     * The compiled defaults, the listener which keeps them up to date, and
+     * the registry of validated styles, which are kept per app context.
+     * Guarded by DEFAULTS_LOCK.
+     */
+    private static final class AppContextDefaults {
+
+        /**
+         * The UIDefaults entries, keyed by prefix and then by key, or
+         * {@code null} until they are compiled.
+         */
+        Map<String, TreeMap<String, Object>> compiledDefaults;
+
+        /** The validated styles, keyed by prefix. */
+        final Map<String, List<WeakReference<SeaGlassStyle>>> styles = new HashMap<String, List<WeakReference<SeaGlassStyle>>>();
+
+        /** The listener on the UIDefaults tables, once it is added. */
+        PropertyChangeListener listener;
+    }
 }
@@ -30,14 +30,12 @@ import javax.swing.border.Border;
 import javax.swing.plaf.UIResource;
 import javax.swing.plaf.synth.ColorType;
 import javax.swing.plaf.synth.SynthContext;
-import javax.swing.plaf.synth.SynthGraphicsUtils;
 import javax.swing.plaf.synth.SynthPainter;
 import javax.swing.plaf.synth.SynthStyle;
 
 import com.seaglasslookandfeel.component.SeaGlassBorder;
 import com.seaglasslookandfeel.painter.SeaGlassPainter;
 import com.seaglasslookandfeel.ui.SeaglassUI;
-import com.seaglasslookandfeel.util.SeaGlassGraphicsUtils;
 
 
 /**
@@ -49,9 +47,6 @@ import com.seaglasslookandfeel.util.SeaGlassGraphicsUtils;
  */
 public final class SeaGlassStyleWrapper extends SeaGlassStyle {
 
-    /** Shared SynthGraphics. */
-    private static final SynthGraphicsUtils SEAGLASS_GRAPHICS = new SeaGlassGraphicsUtils();
-
     /**
      * The SynthPainter that will be returned from this SeaGlassStyle. The
      * SynthPainter returned will be a SeaGlassSynthPainterImpl, which will in
@@ -78,17 +73,6 @@ public final class SeaGlassStyleWrapper extends SeaGlassStyle {
         this.painter = new SeaGlassSynthPainterImpl(this);
     }
 
-    /**
-     * Returns the <code>SynthGraphicUtils</code> for the specified context.
-     *
-     * @param  context SynthContext identifying requester
-     *
-     * @return SynthGraphicsUtils
-     */
-    public SynthGraphicsUtils getGraphicsUtils(SynthContext context) {
-        return SEAGLASS_GRAPHICS;
-    }
-
     /**
      * Re-implements SynthStyle.installDefaults(SynthContext, SynthUI) because
      * it's package local.
@@ -113,15 +113,9 @@ public class DropShadowEffect extends ShadowEffect {
             }
         }
 
-        // blur
-        float[] kernel = EffectUtils.createGaussianKernel(size);
+        // blur, leaving the result in tmpBuf1
+        EffectUtils.blur(tmpBuf1, tmpBuf2, tmpW, tmpH, size);
 
-        EffectUtils.blur(tmpBuf1, tmpBuf2, tmpW, tmpH, kernel, size); // horizontal
-
-        // pass
-        EffectUtils.blur(tmpBuf2, tmpBuf1, tmpH, tmpW, kernel, size); // vertical
-
-        // pass
         // rescale
         float spread = Math.min(1 / (1 - (0.01f * this.spread)), 255);
 
@@ -38,8 +38,6 @@ import java.lang.ref.SoftReference;
 
 import javax.swing.ImageIcon;
 
-import sun.awt.AppContext;
-
 /**
  * Effect
  *
@@ -47,6 +45,17 @@ import sun.awt.AppContext;
  */
 public abstract class Effect {
 
+    /**
+     * The scratch arrays. Each painting thread gets its own, so effects can be
+     * applied on several threads at once.
+     */
+    private static final ThreadLocal<ArrayCache> arrayCache = new ThreadLocal<ArrayCache>() {
+        @Override
+        protected ArrayCache initialValue() {
+            return new ArrayCache();
+        }
+    };
+
     /**
      * The type of effect.
      */
@@ -122,14 +131,7 @@ public abstract class Effect {
      * @return the array cache.
      */
     protected static ArrayCache getArrayCache() {
-        ArrayCache cache = (ArrayCache) AppContext.getAppContext().get(ArrayCache.class);
-
-        if (cache == null) {
-            cache = new ArrayCache();
-            AppContext.getAppContext().put(ArrayCache.class, cache);
-        }
-
-        return cache;
+        return arrayCache.get();
     }
 
     /**
@@ -277,7 +279,7 @@ public abstract class Effect {
     }
 
     /**
-     * A static array cache with one int array and three byte arrays.
+     * A per-thread array cache with one int array and three byte arrays.
      */
     protected static class ArrayCache {
         private SoftReference<int[]>  tmpIntArray   = null;
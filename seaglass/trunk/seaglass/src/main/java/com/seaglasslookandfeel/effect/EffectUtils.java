@@ -29,6 +29,16 @@ import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.awt.image.ColorModel;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 /**
  * EffectUtils
  *
@@ -53,6 +63,44 @@ class EffectUtils {
     // =================================================================================================================
     // Blur
 
+    /**
+     * Blurs with at least this radius use three box blurs approximating the
+     * Gaussian, whose cost does not depend on the radius. Smaller blurs, such
+     * as the drop shadows the painters use, convolve with the Gaussian kernel
+     * itself.
+     */
+    static final int BOX_BLUR_MIN_RADIUS = 8;
+
+    /**
+     * Set the system property "SeaGlass.Effect.parallelBlur" to true to blur
+     * large images on several threads.
+     */
+    private static final boolean PARALLEL_BLUR = Boolean.getBoolean("SeaGlass.Effect.parallelBlur");
+
+    /** Images with fewer pixels than this are always blurred on one thread. */
+    private static final int PARALLEL_MIN_PIXELS = 256 * 256;
+
+    /** The number of threads to blur large images with. */
+    private static final int PARALLEL_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** The threads used to blur large images. Created when first needed. */
+    private static ExecutorService blurExecutor;
+
+    /** The Gaussian kernels created so far, keyed by radius. */
+    private static final Map<Integer, float[]> gaussianKernels = new ConcurrentHashMap<Integer, float[]>();
+
+    /**
+     * The radii of the three box blurs approximating each Gaussian blur
+     * radius.
+     */
+    private static final Map<Integer, int[]> boxRadii = new ConcurrentHashMap<Integer, int[]>();
+
+    /**
+     * Tables dividing a box blur's running sum by its width, with rounding,
+     * keyed by box radius.
+     */
+    private static final Map<Integer, int[]> divideTables = new ConcurrentHashMap<Integer, int[]>();
+
     /**
      * Apply Gaussian Blur to Image
      *
@@ -71,22 +119,15 @@ class EffectUtils {
             dst = createColorModelCompatibleImage(src);
         }
 
-        float[] kernel = createGaussianKernel(radius);
-
         if (src.getType() == BufferedImage.TYPE_INT_ARGB) {
             int[] srcPixels = new int[width * height];
             int[] dstPixels = new int[width * height];
 
             getPixels(src, 0, 0, width, height, srcPixels);
 
-            // horizontal pass
-            blur(srcPixels, dstPixels, width, height, kernel, radius);
-
-            // vertical pass
-            // noinspection SuspiciousNameCombination
-            blur(dstPixels, srcPixels, height, width, kernel, radius);
+            // the result is stored in srcPixels
+            blur(srcPixels, dstPixels, width, height, radius);
 
-            // the result is now stored in srcPixels due to the 2nd pass
             setPixels(dst, 0, 0, width, height, srcPixels);
         } else if (src.getType() == BufferedImage.TYPE_BYTE_GRAY) {
             byte[] srcPixels = new byte[width * height];
@@ -94,14 +135,9 @@ class EffectUtils {
 
             getPixels(src, 0, 0, width, height, srcPixels);
 
-            // horizontal pass
-            blur(srcPixels, dstPixels, width, height, kernel, radius);
+            // the result is stored in srcPixels
+            blur(srcPixels, dstPixels, width, height, radius);
 
-            // vertical pass
-            // noinspection SuspiciousNameCombination
-            blur(dstPixels, srcPixels, height, width, kernel, radius);
-
-            // the result is now stored in srcPixels due to the 2nd pass
             setPixels(dst, 0, 0, width, height, srcPixels);
         } else {
             throw new IllegalArgumentException("EffectUtils.gaussianBlur() src image is not a supported type, type=[" + src.getType()
@@ -112,8 +148,74 @@ class EffectUtils {
     }
 
     /**
-     * <p>Blurs the source pixels into the destination pixels. The force of the
-     * blur is specified by the radius which must be greater than 0.</p>
+     * <p>Blurs the pixels in place, horizontally and vertically. The force of
+     * the blur is specified by the radius which must be greater than 0.</p>
+     *
+     * <p>The pixels are expected to be in the INT_ARGB format. Below
+     * {@link #BOX_BLUR_MIN_RADIUS}, pixels beyond the edges are taken to be
+     * the same as the pixel being blurred. At larger radii they are taken to
+     * be the same as the nearest edge pixel.</p>
+     *
+     * @param pixels    the pixels, which will be replaced by the blurred
+     *                  pixels
+     * @param tmpPixels a scratch array at least as large as the image
+     * @param width     the width of the picture
+     * @param height    the height of the picture
+     * @param radius    the radius of the blur effect
+     */
+    static void blur(int[] pixels, int[] tmpPixels, int width, int height, int radius) {
+        if (radius < BOX_BLUR_MIN_RADIUS) {
+            float[] kernel = getGaussianKernel(radius);
+
+            blur(pixels, tmpPixels, width, height, kernel, radius); // horizontal pass
+            blur(tmpPixels, pixels, height, width, kernel, radius); // vertical pass
+        } else {
+
+            for (int boxRadius : getBoxRadii(radius)) {
+                int[] divide = getDivideTable(boxRadius);
+
+                boxBlur(pixels, tmpPixels, width, height, boxRadius, divide); // horizontal pass
+                boxBlur(tmpPixels, pixels, height, width, boxRadius, divide); // vertical pass
+            }
+        }
+    }
+
+    /**
+     * <p>Blurs the pixels in place, horizontally and vertically. The force of
+     * the blur is specified by the radius which must be greater than 0.</p>
+     *
+     * <p>The pixels are expected to be in the BYTE_GREY format. Below
+     * {@link #BOX_BLUR_MIN_RADIUS}, pixels beyond the edges are taken to be
+     * the same as the pixel being blurred. At larger radii they are taken to
+     * be the same as the nearest edge pixel.</p>
+     *
+     * @param pixels    the pixels, which will be replaced by the blurred
+     *                  pixels
+     * @param tmpPixels a scratch array at least as large as the image
+     * @param width     the width of the picture
+     * @param height    the height of the picture
+     * @param radius    the radius of the blur effect
+     */
+    static void blur(byte[] pixels, byte[] tmpPixels, int width, int height, int radius) {
+        if (radius < BOX_BLUR_MIN_RADIUS) {
+            float[] kernel = getGaussianKernel(radius);
+
+            blur(pixels, tmpPixels, width, height, kernel, radius); // horizontal pass
+            blur(tmpPixels, pixels, height, width, kernel, radius); // vertical pass
+        } else {
+
+            for (int boxRadius : getBoxRadii(radius)) {
+                int[] divide = getDivideTable(boxRadius);
+
+                boxBlur(pixels, tmpPixels, width, height, boxRadius, divide); // horizontal pass
+                boxBlur(tmpPixels, pixels, height, width, boxRadius, divide); // vertical pass
+            }
+        }
+    }
+
+    /**
+     * <p>Convolves the source pixels with a kernel into the destination
+     * pixels.</p>
      *
      * <p>The source and destination pixels arrays are expected to be in the
      * INT_ARGB format.</p>
@@ -128,23 +230,39 @@ class EffectUtils {
      * @param kernel    the kernel of the blur effect
      * @param radius    the radius of the blur effect
      */
-    private static void blur(int[] srcPixels, int[] dstPixels, int width, int height, float[] kernel, int radius) {
-        float a;
-        float r;
-        float g;
-        float b;
-
-        int ca;
-        int cr;
-        int cg;
-        int cb;
-
-        for (int y = 0; y < height; y++) {
+    private static void blur(final int[] srcPixels, final int[] dstPixels, final int width, final int height, final float[] kernel,
+            final int radius) {
+        forEachRow(height, width, new RowTask() {
+                void run(int firstRow, int endRow) {
+                    blur(srcPixels, dstPixels, width, height, kernel, radius, firstRow, endRow);
+                }
+            });
+    }
+
+    /**
+     * Convolves a range of rows. See {@link #blur(int[], int[], int, int,
+     * float[], int)}.
+     *
+     * @param srcPixels the source pixels
+     * @param dstPixels the destination pixels
+     * @param width     the width of the source picture
+     * @param height    the height of the source picture
+     * @param kernel    the kernel of the blur effect
+     * @param radius    the radius of the blur effect
+     * @param firstRow  the first row to convolve
+     * @param endRow    the row after the last row to convolve
+     */
+    private static void blur(int[] srcPixels, int[] dstPixels, int width, int height, float[] kernel, int radius, int firstRow,
+            int endRow) {
+        for (int y = firstRow; y < endRow; y++) {
             int index  = y;
             int offset = y * width;
 
             for (int x = 0; x < width; x++) {
-                a = r = g = b = 0.0f;
+                float a = 0.0f;
+                float r = 0.0f;
+                float g = 0.0f;
+                float b = 0.0f;
 
                 for (int i = -radius; i <= radius; i++) {
                     int subOffset = x + i;
@@ -162,21 +280,21 @@ class EffectUtils {
                     b += blurFactor * ((pixel) & 0xFF);
                 }
 
-                ca = (int) (a + 0.5f);
-                cr = (int) (r + 0.5f);
-                cg = (int) (g + 0.5f);
-                cb = (int) (b + 0.5f);
+                int ca = (int) (a + 0.5f);
+                int cr = (int) (r + 0.5f);
+                int cg = (int) (g + 0.5f);
+                int cb = (int) (b + 0.5f);
 
-                dstPixels[index] =  ((ca > 255 ? 255 : ca) << 24) | ((cr > 255 ? 255 : cr) << 16) | ((cg > 255 ? 255 : cg) << 8)
-                        | (cb > 255 ? 255 : cb);
+                dstPixels[index] =  ((ca > 255 ? 255 : ca) << 24) | ((cr > 255 ? 255 : cr) << 16)
+                        | ((cg > 255 ? 255 : cg) << 8) | (cb > 255 ? 255 : cb);
                 index            += height;
             }
         }
     }
 
     /**
-     * <p>Blurs the source pixels into the destination pixels. The force of the
-     * blur is specified by the radius which must be greater than 0.</p>
+     * <p>Convolves the source pixels with a kernel into the destination
+     * pixels.</p>
      *
      * <p>The source and destination pixels arrays are expected to be in the
      * BYTE_GREY format.</p>
@@ -191,39 +309,387 @@ class EffectUtils {
      * @param kernel    the kernel of the blur effect
      * @param radius    the radius of the blur effect
      */
-    static void blur(byte[] srcPixels, byte[] dstPixels, int width, int height, float[] kernel, int radius) {
-        float p;
-        int   cp;
+    private static void blur(final byte[] srcPixels, final byte[] dstPixels, final int width, final int height, final float[] kernel,
+            final int radius) {
+        forEachRow(height, width, new RowTask() {
+                void run(int firstRow, int endRow) {
+                    blur(srcPixels, dstPixels, width, height, kernel, radius, firstRow, endRow);
+                }
+            });
+    }
 
-        for (int y = 0; y < height; y++) {
+    /**
+     * Convolves a range of rows. See {@link #blur(byte[], byte[], int, int,
+     * float[], int)}.
+     *
+     * @param srcPixels the source pixels
+     * @param dstPixels the destination pixels
+     * @param width     the width of the source picture
+     * @param height    the height of the source picture
+     * @param kernel    the kernel of the blur effect
+     * @param radius    the radius of the blur effect
+     * @param firstRow  the first row to convolve
+     * @param endRow    the row after the last row to convolve
+     */
+    private static void blur(byte[] srcPixels, byte[] dstPixels, int width, int height, float[] kernel, int radius, int firstRow,
+            int endRow) {
+        for (int y = firstRow; y < endRow; y++) {
             int index  = y;
             int offset = y * width;
 
             for (int x = 0; x < width; x++) {
-                p = 0.0f;
+                float p = 0.0f;
 
                 for (int i = -radius; i <= radius; i++) {
                     int subOffset = x + i;
 
-                    // if (subOffset < 0) subOffset = 0;
-                    // if (subOffset >= width) subOffset = width-1;
                     if (subOffset < 0 || subOffset >= width) {
                         subOffset = (x + width) % width;
                     }
 
-                    int   pixel      = srcPixels[offset + subOffset] & 0xFF;
-                    float blurFactor = kernel[radius + i];
-
-                    p += blurFactor * pixel;
+                    p += kernel[radius + i] * (srcPixels[offset + subOffset] & 0xFF);
                 }
 
-                cp               =  (int) (p + 0.5f);
+                int cp = (int) (p + 0.5f);
+
                 dstPixels[index] =  (byte) (cp > 255 ? 255 : cp);
                 index            += height;
             }
         }
     }
 
+    /**
+     * <p>Box blurs the source pixels into the destination pixels, keeping a
+     * running sum of the pixels under the box so each pixel costs the same
+     * whatever the radius.</p>
+     *
+     * <p>The source and destination pixels arrays are expected to be in the
+     * INT_ARGB format.</p>
+     *
+     * <p>After this method is executed, dstPixels contains a transposed and
+     * filtered copy of srcPixels.</p>
+     *
+     * @param srcPixels the source pixels
+     * @param dstPixels the destination pixels
+     * @param width     the width of the source picture
+     * @param height    the height of the source picture
+     * @param radius    the radius of the box
+     * @param divide    the table dividing a sum by the width of the box
+     */
+    private static void boxBlur(final int[] srcPixels, final int[] dstPixels, final int width, final int height, final int radius,
+            final int[] divide) {
+        forEachRow(height, width, new RowTask() {
+                void run(int firstRow, int endRow) {
+                    boxBlur(srcPixels, dstPixels, width, height, radius, divide, firstRow, endRow);
+                }
+            });
+    }
+
+    /**
+     * Box blurs a range of rows. See {@link #boxBlur(int[], int[], int, int,
+     * int, int[])}.
+     *
+     * @param srcPixels the source pixels
+     * @param dstPixels the destination pixels
+     * @param width     the width of the source picture
+     * @param height    the height of the source picture
+     * @param radius    the radius of the box
+     * @param divide    the table dividing a sum by the width of the box
+     * @param firstRow  the first row to blur
+     * @param endRow    the row after the last row to blur
+     */
+    private static void boxBlur(int[] srcPixels, int[] dstPixels, int width, int height, int radius, int[] divide, int firstRow,
+            int endRow) {
+        int last = width - 1;
+
+        for (int y = firstRow; y < endRow; y++) {
+            int index  = y;
+            int offset = y * width;
+
+            // the box for the first pixel, which overhangs the
+            // left edge
+            int pixel = srcPixels[offset];
+            int a     = (radius + 1) * ((pixel >> 24) & 0xFF);
+            int r     = (radius + 1) * ((pixel >> 16) & 0xFF);
+            int g     = (radius + 1) * ((pixel >> 8) & 0xFF);
+            int b     = (radius + 1) * (pixel & 0xFF);
+
+            for (int i = 1; i <= radius; i++) {
+                pixel =  srcPixels[offset + (i < last ? i : last)];
+                a     += (pixel >> 24) & 0xFF;
+                r     += (pixel >> 16) & 0xFF;
+                g     += (pixel >> 8) & 0xFF;
+                b     += pixel & 0xFF;
+            }
+
+            for (int x = 0; x < width; x++) {
+                dstPixels[index] =  (divide[a] << 24) | (divide[r] << 16) | (divide[g] << 8) | divide[b];
+                index            += height;
+
+                // slide the box one pixel to the right
+                int in  = x + radius + 1;
+                int out = x - radius;
+
+                int pixelIn  = srcPixels[offset + (in < last ? in : last)];
+                int pixelOut = srcPixels[offset + (out > 0 ? out : 0)];
+
+                a += ((pixelIn >> 24) & 0xFF) - ((pixelOut >> 24) & 0xFF);
+                r += ((pixelIn >> 16) & 0xFF) - ((pixelOut >> 16) & 0xFF);
+                g += ((pixelIn >> 8) & 0xFF) - ((pixelOut >> 8) & 0xFF);
+                b += (pixelIn & 0xFF) - (pixelOut & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * <p>Box blurs the source pixels into the destination pixels, keeping a
+     * running sum of the pixels under the box so each pixel costs the same
+     * whatever the radius.</p>
+     *
+     * <p>The source and destination pixels arrays are expected to be in the
+     * BYTE_GREY format.</p>
+     *
+     * <p>After this method is executed, dstPixels contains a transposed and
+     * filtered copy of srcPixels.</p>
+     *
+     * @param srcPixels the source pixels
+     * @param dstPixels the destination pixels
+     * @param width     the width of the source picture
+     * @param height    the height of the source picture
+     * @param radius    the radius of the box
+     * @param divide    the table dividing a sum by the width of the box
+     */
+    private static void boxBlur(final byte[] srcPixels, final byte[] dstPixels, final int width, final int height, final int radius,
+            final int[] divide) {
+        forEachRow(height, width, new RowTask() {
+                void run(int firstRow, int endRow) {
+                    boxBlur(srcPixels, dstPixels, width, height, radius, divide, firstRow, endRow);
+                }
+            });
+    }
+
+    /**
+     * Box blurs a range of rows. See {@link #boxBlur(byte[], byte[], int, int,
+     * int, int[])}.
+     *
+     * @param srcPixels the source pixels
+     * @param dstPixels the destination pixels
+     * @param width     the width of the source picture
+     * @param height    the height of the source picture
+     * @param radius    the radius of the box
+     * @param divide    the table dividing a sum by the width of the box
+     * @param firstRow  the first row to blur
+     * @param endRow    the row after the last row to blur
+     */
+    private static void boxBlur(byte[] srcPixels, byte[] dstPixels, int width, int height, int radius, int[] divide, int firstRow,
+            int endRow) {
+        int last = width - 1;
+
+        for (int y = firstRow; y < endRow; y++) {
+            int index  = y;
+            int offset = y * width;
+
+            // the box for the first pixel, which overhangs the
+            // left edge
+            int sum = (radius + 1) * (srcPixels[offset] & 0xFF);
+
+            for (int i = 1; i <= radius; i++) {
+                sum += srcPixels[offset + (i < last ? i : last)] & 0xFF;
+            }
+
+            for (int x = 0; x < width; x++) {
+                dstPixels[index] =  (byte) divide[sum];
+                index            += height;
+
+                // slide the box one pixel to the right
+                int in  = x + radius + 1;
+                int out = x - radius;
+
+                sum += (srcPixels[offset + (in < last ? in : last)] & 0xFF) - (srcPixels[offset + (out > 0 ? out : 0)] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * A pass over a range of rows of an image.
+     */
+    private abstract static class RowTask {
+
+        /**
+         * Process the rows.
+         *
+         * @param firstRow the first row.
+         * @param endRow   the row after the last row.
+         */
+        abstract void run(int firstRow, int endRow);
+    }
+
+    /**
+     * Run a pass over all the rows of an image. If parallel blurring is
+     * enabled and the image is large, the rows are split between several
+     * threads. Each row of a pass is independent of the others, so this gives
+     * the same result.
+     *
+     * @param rows  the number of rows.
+     * @param width the number of pixels in each row.
+     * @param task  the pass.
+     */
+    private static void forEachRow(int rows, int width, final RowTask task) {
+        if (!PARALLEL_BLUR || PARALLEL_THREADS < 2 || rows < PARALLEL_THREADS || rows * width < PARALLEL_MIN_PIXELS) {
+            task.run(0, rows);
+
+            return;
+        }
+
+        ExecutorService executor = getBlurExecutor();
+        int             chunk    = (rows + PARALLEL_THREADS - 1) / PARALLEL_THREADS;
+        List<Future<?>> futures  = new ArrayList<Future<?>>(PARALLEL_THREADS);
+
+        for (int first = chunk; first < rows; first += chunk) {
+            final int firstRow = first;
+            final int endRow   = Math.min(first + chunk, rows);
+
+            futures.add(executor.submit(new Runnable() {
+                        public void run() {
+                            task.run(firstRow, endRow);
+                        }
+                    }));
+        }
+
+        // do the first chunk on this thread
+        task.run(0, Math.min(chunk, rows));
+
+        boolean interrupted = false;
+
+        for (Future<?> future : futures) {
+
+            while (true) {
+
+                try {
+                    future.get();
+
+                    break;
+                } catch (InterruptedException e) {
+                    // the pass has to finish before the pixels can be used
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Blur failed", e.getCause());
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the threads used to blur large images, creating them if
+     * necessary. They are daemon threads so they don't keep the application
+     * running.
+     *
+     * @return the executor.
+     */
+    private static synchronized ExecutorService getBlurExecutor() {
+        if (blurExecutor == null) {
+            blurExecutor = Executors.newFixedThreadPool(PARALLEL_THREADS, new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "SeaGlass blur");
+
+                        thread.setDaemon(true);
+
+                        return thread;
+                    }
+                });
+        }
+
+        return blurExecutor;
+    }
+
+    /**
+     * Returns the shared Gaussian kernel for a radius, creating it if
+     * necessary. The kernel must not be modified.
+     *
+     * @param  radius the kernel radius.
+     *
+     * @return the Gaussian kernel.
+     */
+    static float[] getGaussianKernel(int radius) {
+        float[] kernel = gaussianKernels.get(radius);
+
+        if (kernel == null) {
+            kernel = createGaussianKernel(radius);
+            gaussianKernels.put(radius, kernel);
+        }
+
+        return kernel;
+    }
+
+    /**
+     * Returns the radii of three box blurs which together approximate a
+     * Gaussian blur with the same standard deviation as the Gaussian kernel
+     * for the radius.
+     *
+     * @param  radius the Gaussian kernel radius.
+     *
+     * @return the box radii.
+     */
+    private static int[] getBoxRadii(int radius) {
+        int[] radii = boxRadii.get(radius);
+
+        if (radii == null) {
+            double sigmaSquare = (radius / 3.0) * (radius / 3.0);
+
+            // the ideal box width, and the nearest odd widths below and above
+            int lower = (int) Math.sqrt(12 * sigmaSquare / 3 + 1);
+
+            if (lower % 2 == 0) {
+                lower--;
+            }
+
+            int upper = lower + 2;
+
+            // how many of the boxes should have the lower width
+            int lowerCount = (int) Math.round((12 * sigmaSquare - 3 * lower * lower - 12 * lower - 9) / (-4.0 * lower - 4));
+
+            radii = new int[3];
+
+            for (int i = 0; i < radii.length; i++) {
+                radii[i] = ((i < lowerCount ? lower : upper) - 1) / 2;
+            }
+
+            boxRadii.put(radius, radii);
+        }
+
+        return radii;
+    }
+
+    /**
+     * Returns the table dividing the sum of the pixels under a box by the
+     * width of the box, rounding to the nearest integer.
+     *
+     * @param  radius the box radius.
+     *
+     * @return the table.
+     */
+    private static int[] getDivideTable(int radius) {
+        int[] divide = divideTables.get(radius);
+
+        if (divide == null) {
+            int size = radius * 2 + 1;
+
+            divide = new int[256 * size];
+
+            for (int i = 0; i < divide.length; i++) {
+                divide[i] = (i + size / 2) / size;
+            }
+
+            divideTables.put(radius, divide);
+        }
+
+        return divide;
+    }
+
     /**
      * Create a Gaussian kernel for the transformation.
      *
@@ -2,13 +2,12 @@ package com.seaglasslookandfeel.icons;
 
 import java.awt.*;
 import java.awt.geom.*;
-import javax.swing.Icon; 
 
 /**
  * This class has been automatically generated using svg2java
  * 
  */
-public class FolderNewIcon implements Icon {
+public class FolderNewIcon implements VectorIcon {
 	
 	private float origAlpha = 1.0f;
 
@@ -212,15 +211,7 @@ public class FolderNewIcon implements Icon {
 	 */
     @Override
 	public void paintIcon(Component c, Graphics g, int x, int y) {
-		Graphics2D g2d = (Graphics2D) g.create();
-		g2d.translate(x, y);
-
-		double coef1 = (double) this.width / (double) getOrigWidth();
-		double coef2 = (double) this.height / (double) getOrigHeight();
-		double coef = Math.min(coef1, coef2);
-		g2d.scale(coef, coef);
-		paint(g2d);
-		g2d.dispose();
+		IconImageCache.paintIcon(this, g, x, y);
 	}
 }
 
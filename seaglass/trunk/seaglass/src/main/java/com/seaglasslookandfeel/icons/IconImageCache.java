@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel.icons;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.print.PrinterGraphics;
+
+import com.seaglasslookandfeel.util.ImageCache;
+
+/**
+ * Paints vector icons from images in the shared {@link ImageCache}, so that
+ * the artwork of an icon is rendered once for each size, device scale and
+ * alpha, and every later paint is a single drawImage.
+ *
+ * <p>The images are keyed by the icon class, so all instances of an icon
+ * share them. Icons are painted as vectors when printing, when the transform
+ * rotates or shears, when the composite is not a source-over composite, and
+ * when the image would be too large for the cache.</p>
+ */
+final class IconImageCache {
+
+    /**
+     * Private constructor. All methods are static.
+     */
+    private IconImageCache() {
+    }
+
+    /**
+     * Paint an icon at its icon size, scaled uniformly to fit as the
+     * generated icons do.
+     *
+     * @param icon the icon.
+     * @param g    the Graphics context to paint with.
+     * @param x    the x coordinate of the icon's top left corner.
+     * @param y    the y coordinate of the icon's top left corner.
+     */
+    static void paintIcon(VectorIcon icon, Graphics g, int x, int y) {
+        int    width  = icon.getIconWidth();
+        int    height = icon.getIconHeight();
+        double coef   = Math.min((double) width / icon.getOrigWidth(), (double) height / icon.getOrigHeight());
+
+        Graphics2D g2d = (Graphics2D) g.create();
+
+        try {
+            g2d.translate(x, y);
+
+            if (!paintCachedImage(icon, g2d, coef)) {
+                g2d.scale(coef, coef);
+                icon.paint(g2d);
+            }
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    /**
+     * Paint an icon from its cached image, rendering the image first if it is
+     * not cached.
+     *
+     * @param  icon   the icon.
+     * @param  g      the Graphics2D context, translated to the icon's
+     *                position.
+     * @param  coef   the scale of the artwork.
+     *
+     * @return {@code true} if the icon was painted, {@code false} if it must
+     *         be painted as vectors.
+     */
+    private static boolean paintCachedImage(VectorIcon icon, Graphics2D g, double coef) {
+        if (g instanceof PrinterGraphics) {
+            return false;
+        }
+
+        AffineTransform transform = g.getTransform();
+        Composite       composite = g.getComposite();
+
+        if (transform.getShearX() != 0 || transform.getShearY() != 0 || transform.getScaleX() <= 0 || transform.getScaleY() <= 0
+                || !(composite instanceof AlphaComposite) || ((AlphaComposite) composite).getRule() != AlphaComposite.SRC_OVER) {
+            return false;
+        }
+
+        // The artwork is not clipped to the icon's size. It starts near the
+        // origin and may reach a unit past its original bounding box, so the
+        // image covers that with a margin of one unit.
+        GraphicsConfiguration config     = g.getDeviceConfiguration();
+        double                scaleX     = transform.getScaleX() * coef;
+        double                scaleY     = transform.getScaleY() * coef;
+        int                   marginX    = (int) Math.ceil(scaleX);
+        int                   marginY    = (int) Math.ceil(scaleY);
+        int                   w          = (int) Math.ceil((icon.getOrigX() + icon.getOrigWidth() + 1) * scaleX) + marginX;
+        int                   h          = (int) Math.ceil((icon.getOrigY() + icon.getOrigHeight() + 1) * scaleY) + marginY;
+        float                 alpha      = ((AlphaComposite) composite).getAlpha();
+        ImageCache            imageCache = ImageCache.getInstance();
+
+        if (config == null || !imageCache.isImageCachable(w, h)) {
+            return false;
+        }
+
+        Object[] keys  = new Object[] { icon.getClass(), scaleX, scaleY, alpha };
+        Image    image = imageCache.getImage(config, w, h, keys);
+
+        if (image == null) {
+            BufferedImage buffer = config.createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+            Graphics2D    bg     = buffer.createGraphics();
+
+            // The artwork applies the alpha to each shape, so it is rendered
+            // with it rather than applied when the image is drawn.
+            bg.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+            bg.translate(marginX, marginY);
+            bg.scale(scaleX, scaleY);
+            icon.paint(bg);
+            bg.dispose();
+
+            imageCache.setImage(buffer, config, w, h, keys);
+            image = buffer;
+        }
+
+        g.scale(1 / transform.getScaleX(), 1 / transform.getScaleY());
+        g.setComposite(AlphaComposite.SrcOver);
+        g.drawImage(image, -marginX, -marginY, null);
+
+        return true;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel.icons;
+
+import java.awt.Graphics2D;
+
+import javax.swing.Icon;
+
+/**
+ * An icon transcoded from SVG, which paints itself with vector graphics at
+ * the size of its original artwork.
+ */
+interface VectorIcon extends Icon {
+
+    /**
+     * Paints the artwork at its original size.
+     *
+     * @param g the Graphics2D context to paint with.
+     */
+    void paint(Graphics2D g);
+
+    /**
+     * Returns the X of the bounding box of the original SVG image.
+     *
+     * @return the X.
+     */
+    int getOrigX();
+
+    /**
+     * Returns the Y of the bounding box of the original SVG image.
+     *
+     * @return the Y.
+     */
+    int getOrigY();
+
+    /**
+     * Returns the width of the bounding box of the original SVG image.
+     *
+     * @return the width.
+     */
+    int getOrigWidth();
+
+    /**
+     * Returns the height of the bounding box of the original SVG image.
+     *
+     * @return the height.
+     */
+    int getOrigHeight();
+}
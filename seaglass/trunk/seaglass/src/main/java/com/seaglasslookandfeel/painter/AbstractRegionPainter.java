@@ -21,8 +21,10 @@ package com.seaglasslookandfeel.painter;
 
 import java.awt.AlphaComposite;
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.GraphicsConfiguration;
+import java.awt.Image;
 import java.awt.Insets;
 import java.awt.LinearGradientPaint;
 import java.awt.Paint;
@@ -30,7 +32,9 @@ import java.awt.RadialGradientPaint;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.awt.image.VolatileImage;
 import java.awt.print.PrinterGraphics;
 
@@ -42,12 +46,18 @@ import javax.swing.JTable;
 import javax.swing.UIManager;
 import javax.swing.plaf.UIResource;
 
+import com.seaglasslookandfeel.PainterStatistics;
 import com.seaglasslookandfeel.SeaGlassLookAndFeel;
+import com.seaglasslookandfeel.SeaGlassStatistics;
 import com.seaglasslookandfeel.painter.AbstractRegionPainter.PaintContext.CacheMode;
+import com.seaglasslookandfeel.painter.util.ImageScalingHelper;
 import com.seaglasslookandfeel.painter.util.ShapeGenerator;
 import com.seaglasslookandfeel.state.ControlInToolBarState;
 import com.seaglasslookandfeel.state.State;
+import com.seaglasslookandfeel.util.AccessorCache;
+import com.seaglasslookandfeel.util.ColorUtils;
 import com.seaglasslookandfeel.util.ImageCache;
+import com.seaglasslookandfeel.util.ImageCache.CacheKey;
 import com.seaglasslookandfeel.util.SeaGlassGraphicsUtils;
 
 /**
@@ -61,25 +71,51 @@ import com.seaglasslookandfeel.util.SeaGlassGraphicsUtils;
 public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponent> {
     private static final State inToolBarState = new ControlInToolBarState();
 
+    /** The extended cache keys for a component in a toolbar. */
+    private static final Object[] IN_TOOLBAR_KEYS = new Object[] { Boolean.TRUE };
+
+    /** The extended cache keys for a component not in a toolbar. */
+    private static final Object[] NOT_IN_TOOLBAR_KEYS = new Object[] { Boolean.FALSE };
+
     /**
-     * Focus ring color state.
+     * Per-thread key used to look up cached images without allocating. Painters
+     * are shared between components, so the key cannot live on the painter.
      */
-    public enum FocusType {
-        INNER_FOCUS, OUTER_FOCUS,
-    }
+    private static final ThreadLocal<CacheKey> lookupKey = new ThreadLocal<CacheKey>() {
+        @Override
+        protected CacheKey initialValue() {
+            return new CacheKey();
+        }
+    };
 
     /**
-     * PaintContext, which holds a lot of the state needed for cache hinting and
-     * x/y value decoding The data contained within the context is typically
-     * only computed once and reused over multiple paint calls, whereas the
-     * other values (w, h, f, leftWidth, etc) are recomputed for each call to
-     * paint.
+     * The kinds of image cached painter images are kept in.
      *
-     * <p>This field is retrieved from subclasses on each paint operation. It is
-     * up to the subclass to compute and cache the PaintContext over multiple
-     * calls.</p>
+     * <ul>
+     *   <li>{@code AUTOMATIC} uses VolatileImages where the graphics
+     *     configuration accelerates them, and BufferedImages elsewhere, such
+     *     as when headless or painting into an image.</li>
+     *   <li>{@code VOLATILE_IMAGE} always uses VolatileImages.</li>
+     *   <li>{@code BUFFERED_IMAGE} always uses BufferedImages.</li>
+     * </ul>
      */
-    private PaintContext ctx;
+    public static enum CacheBacking {
+        AUTOMATIC, VOLATILE_IMAGE, BUFFERED_IMAGE
+    }
+
+    /**
+     * The kind of image to cache painter images in. Set the system property
+     * "SeaGlass.cacheBacking" to "volatile" or "buffered" to choose one for
+     * all graphics configurations.
+     */
+    private static volatile CacheBacking cacheBacking = getDefaultCacheBacking();
+
+    /**
+     * Focus ring color state.
+     */
+    public enum FocusType {
+        INNER_FOCUS, OUTER_FOCUS,
+    }
 
     /** The generator for almost all of the shapes we use to draw controls. */
     protected ShapeGenerator shapeGenerator = new ShapeGenerator();
@@ -90,6 +126,15 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
      */
     protected Insets focusInsets;
 
+    /**
+     * The painter class and state the statistics are recorded under, or
+     * {@code null} for the painter class alone.
+     */
+    private String statisticsName;
+
+    /** The statistics, found the first time they are recorded. */
+    private volatile PainterStatistics statistics;
+
     private Color outerFocus        = decodeColor("seaGlassOuterFocus");
     private Color innerFocus        = decodeColor("seaGlassFocus");
     private Color outerToolBarFocus = decodeColor("seaGlassToolBarOuterFocus");
@@ -114,6 +159,19 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
         return inToolBarState.isInState(c);
     }
 
+    /**
+     * Returns extended cache keys for a painter whose image depends only on
+     * whether the component is in a toolbar. The arrays are shared, so this
+     * produces no garbage.
+     *
+     * @param  c the component.
+     *
+     * @return the extended cache keys.
+     */
+    protected Object[] getInToolBarCacheKeys(JComponent c) {
+        return isInToolBar(c) ? IN_TOOLBAR_KEYS : NOT_IN_TOOLBAR_KEYS;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -122,23 +180,119 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
         if (w <= 0 || h <= 0)
             return;
 
+        PainterStatistics stats = getStatistics();
+
+        if (stats != null) {
+            stats.recordPaint();
+        }
+
         Object[] extendedCacheKeys = getExtendedCacheKeys(c);
 
-        ctx = getPaintContext();
-        CacheMode cacheMode = ctx == null ? CacheMode.NO_CACHING : ctx.getCacheMode();
+        // The PaintContext is retrieved from the subclass on each paint
+        // operation. Painters are shared, so it is not kept on the painter.
+        PaintContext ctx       = getPaintContext();
+        CacheMode    cacheMode = ctx == null ? CacheMode.NO_CACHING : ctx.getCacheMode();
 
-        if (cacheMode == CacheMode.NO_CACHING || !ImageCache.getInstance().isImageCachable(w, h) || g instanceof PrinterGraphics) {
-            paintDirectly(g, c, w, h, extendedCacheKeys);
+        if (cacheMode == CacheMode.NO_CACHING || g instanceof PrinterGraphics) {
+            paintDirectly(g, c, w, h, extendedCacheKeys, false);
+        } else if (cacheMode == CacheMode.NINE_SQUARE_SCALE) {
+            paintWith9SquareCaching(g, ctx, c, w, h, extendedCacheKeys);
         } else {
             paintWithCaching(g, c, w, h, extendedCacheKeys);
         }
     }
 
+    /**
+     * Set the kind of image painters cache their images in. Images already
+     * cached are replaced as they are painted.
+     *
+     * @param backing the cache backing.
+     */
+    public static void setCacheBacking(CacheBacking backing) {
+        cacheBacking = backing == null ? CacheBacking.AUTOMATIC : backing;
+    }
+
+    /**
+     * Get the kind of image painters cache their images in.
+     *
+     * @return the cache backing.
+     */
+    public static CacheBacking getCacheBacking() {
+        return cacheBacking;
+    }
+
+    /**
+     * Returns {@code true} if painters cache their images for the graphics
+     * configuration in VolatileImages, {@code false} if they use
+     * BufferedImages. Automatically, VolatileImages are used only if the
+     * configuration accelerates them, as otherwise validating them and
+     * checking for lost contents costs more than it saves.
+     *
+     * @param  config the graphics configuration.
+     *
+     * @return {@code true} if images are volatile, {@code false} otherwise.
+     */
+    public static boolean isVolatileBacked(GraphicsConfiguration config) {
+        switch (cacheBacking) {
+        case VOLATILE_IMAGE:
+            return true;
+        case BUFFERED_IMAGE:
+            return false;
+        default:
+            return config.getImageCapabilities().isAccelerated();
+        }
+    }
+
+    /**
+     * Render this painter into the image cache ahead of time, so that the
+     * first paint at this size for this graphics configuration finds the image
+     * already there. The image is rendered at the configuration's default
+     * scale. Painters which do not cache images do nothing.
+     *
+     * @param  config the graphics configuration to render for.
+     * @param  c      a component like the ones the painter will paint.
+     * @param  w      the width to render at.
+     * @param  h      the height to render at.
+     *
+     * @return {@code true} if an image is now cached, {@code false}
+     *         otherwise.
+     */
+    public boolean prerender(GraphicsConfiguration config, JComponent c, int w, int h) {
+        PaintContext ctx       = getPaintContext();
+        CacheMode    cacheMode = ctx == null ? CacheMode.NO_CACHING : ctx.getCacheMode();
+
+        if (cacheMode == CacheMode.NINE_SQUARE_SCALE) {
+            // The image is rendered at the canvas size, as in paintWith9SquareCaching.
+            Dimension canvas = ctx.getCanvasSize();
+            Insets    insets = ctx.getStretchingInsets();
+
+            w = (canvas.width > 0 && w > insets.left + insets.right) ? canvas.width : w;
+            h = (canvas.height > 0 && h > insets.top + insets.bottom) ? canvas.height : h;
+        } else if (cacheMode != CacheMode.FIXED_SIZES) {
+            return false;
+        }
+
+        AffineTransform transform = config.getDefaultTransform();
+        double          scaleX    = getCacheScaleX(transform);
+        double          scaleY    = getCacheScaleY(transform);
+
+        if (w <= 0 || h <= 0 || !ImageCache.getInstance().isImageCachable(toPixels(w, scaleX), toPixels(h, scaleY), scaleX, scaleY)) {
+            return false;
+        }
+
+        return getImage(config, c, w, h, scaleX, scaleY, getExtendedCacheKeys(c)) != null;
+    }
+
     /**
      * Get any extra attributes which the painter implementation would like to
      * include in the image cache lookups. This is checked for every call of the
      * paint(g, c, w, h) method.
      *
+     * <p>The objects are compared with {@code equals}, and the painter itself
+     * is always part of the key, so there is no need to include the painter
+     * or its state here. Return {@code null} rather than an empty array when
+     * there is nothing to add.</p>
+     *
      * @param  c The component on the current paint call
      *
      * @return Array of extra objects to be included in the cache key
@@ -271,15 +425,7 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
      * @return The derived color.
      */
     protected Color deriveColor(Color src, float hOffset, float sOffset, float bOffset, int aOffset) {
-        float[] tmp = Color.RGBtoHSB(src.getRed(), src.getGreen(), src.getBlue(), null);
-
-        // apply offsets
-        tmp[0] = clamp(tmp[0] + hOffset);
-        tmp[1] = clamp(tmp[1] + sOffset);
-        tmp[2] = clamp(tmp[2] + bOffset);
-        int alpha = clamp(src.getAlpha() + aOffset);
-
-        return new Color((Color.HSBtoRGB(tmp[0], tmp[1], tmp[2]) & 0xFFFFFF) | (alpha << 24), true);
+        return new Color(ColorUtils.deriveARGB(src.getRGB(), hOffset, sOffset, bOffset, aOffset), true);
     }
 
     /**
@@ -476,17 +622,17 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
             } else if (c instanceof JTable && "selectionBackground".equals(property)) {
                 color = ((JTable) c).getSelectionBackground();
             } else {
-                String s = "get" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
-
-                try {
-                    Method method = c.getClass().getMethod(s);
-
-                    color = (Color) method.invoke(c);
-                } catch (Exception e) {
-                    // don't do anything, it just didn't work, that's all.
-                    // This could be a normal occurance if you use a property
-                    // name referring to a key in clientProperties instead of
-                    // a real property
+                // The getter is looked up once per class and property. It is
+                // null if the property refers to a key in clientProperties
+                // instead of a real property.
+                Method method = AccessorCache.getGetter(c.getClass(), property);
+
+                if (method != null) {
+                    try {
+                        color = (Color) method.invoke(c);
+                    } catch (Exception e) {
+                        // don't do anything, it just didn't work, that's all.
+                    }
                 }
 
                 if (color == null) {
@@ -508,13 +654,7 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
         if (color == null || color instanceof UIResource) {
             return defaultColor;
         } else if (saturationOffset != 0 || brightnessOffset != 0 || alphaOffset != 0) {
-            float[] tmp = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
-
-            tmp[1] = clamp(tmp[1] + saturationOffset);
-            tmp[2] = clamp(tmp[2] + brightnessOffset);
-            int alpha = clamp(color.getAlpha() + alphaOffset);
-
-            return new Color((Color.HSBtoRGB(tmp[0], tmp[1], tmp[2]) & 0xFFFFFF) | (alpha << 24));
+            return new Color(ColorUtils.deriveARGB(color.getRGB(), 0, saturationOffset, brightnessOffset, alphaOffset));
         } else {
             return color;
         }
@@ -540,12 +680,7 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
      * @return the new color.
      */
     protected Color desaturate(Color color) {
-        float[] tmp = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
-
-        tmp[1] /= 3.0f;
-        tmp[2] = clamp(1.0f - (1.0f - tmp[2]) / 3f);
-
-        return new Color((Color.HSBtoRGB(tmp[0], tmp[1], tmp[2]) & 0xFFFFFF));
+        return new Color(ColorUtils.desaturateARGB(color.getRGB()));
     }
 
     /**
@@ -596,10 +731,43 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
         return new FourColors(desaturate(colors.top), desaturate(colors.upperMid), desaturate(colors.lowerMid), desaturate(colors.bottom));
     }
 
+    /**
+     * Set the name the painter's statistics are recorded under. Called when
+     * the painter is created for a state.
+     *
+     * @param statisticsName the painter class and state, such as
+     *                       "ButtonPainter.BACKGROUND_ENABLED".
+     */
+    void setStatisticsName(String statisticsName) {
+        this.statisticsName = statisticsName;
+    }
+
     // ---------------------- private methods
 
     /**
-     * Paint the component, using a cached image if possible.
+     * Get the statistics to record this painter's paints in.
+     *
+     * @return the statistics, or {@code null} if statistics are not enabled.
+     */
+    private PainterStatistics getStatistics() {
+        if (!SeaGlassStatistics.isStatisticsEnabled()) {
+            return null;
+        }
+
+        PainterStatistics stats = statistics;
+
+        if (stats == null) {
+            stats      = SeaGlassStatistics.getPainterStatistics(statisticsName != null ? statisticsName : getClass().getSimpleName());
+            statistics = stats;
+        }
+
+        return stats;
+    }
+
+    /**
+     * Paint the component, using a cached image if possible. The image is
+     * rendered at the scale of the graphics transform, so that it stays sharp
+     * on scaled displays.
      *
      * @param g                 the Graphics2D context to paint with.
      * @param c                 the component to paint.
@@ -608,16 +776,83 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
      * @param extendedCacheKeys extended cache keys.
      */
     private void paintWithCaching(Graphics2D g, JComponent c, int w, int h, Object[] extendedCacheKeys) {
-        VolatileImage img = getImage(g.getDeviceConfiguration(), c, w, h, extendedCacheKeys);
+        AffineTransform transform = g.getTransform();
+        double          scaleX    = getCacheScaleX(transform);
+        double          scaleY    = getCacheScaleY(transform);
+
+        if (!ImageCache.getInstance().isImageCachable(toPixels(w, scaleX), toPixels(h, scaleY), scaleX, scaleY)) {
+            paintDirectly(g, c, w, h, extendedCacheKeys, false);
+            return;
+        }
+
+        Image img = getImage(g.getDeviceConfiguration(), c, w, h, scaleX, scaleY, extendedCacheKeys);
+
+        if (img == null) {
 
-        if (img != null) {
+            // render directly
+            paintDirectly(g, c, w, h, extendedCacheKeys, false);
+        } else if (scaleX == 1 && scaleY == 1) {
 
             // render cached image
             g.drawImage(img, 0, 0, null);
         } else {
 
-            // render directly
-            paintDirectly(g, c, w, h, extendedCacheKeys);
+            // render cached image pixel for pixel
+            g.scale(1 / scaleX, 1 / scaleY);
+            g.drawImage(img, 0, 0, null);
+            g.setTransform(transform);
+        }
+    }
+
+    /**
+     * Paint the component by stretching a cached image rendered at the
+     * context's canvas size. The stretching insets are copied unscaled and the
+     * rest of the image is stretched to fill the requested size.
+     *
+     * <p>An axis whose canvas size is zero is always rendered at the requested
+     * size, as is an axis too small to hold its stretching insets.</p>
+     *
+     * @param g                 the Graphics2D context to paint with.
+     * @param ctx               the paint context.
+     * @param c                 the component to paint.
+     * @param w                 the component width.
+     * @param h                 the component height.
+     * @param extendedCacheKeys extended cache keys.
+     */
+    private void paintWith9SquareCaching(Graphics2D g, PaintContext ctx, JComponent c, int w, int h, Object[] extendedCacheKeys) {
+        Dimension       canvas    = ctx.getCanvasSize();
+        Insets          insets    = ctx.getStretchingInsets();
+        int             cw        = (canvas.width > 0 && w > insets.left + insets.right) ? canvas.width : w;
+        int             ch        = (canvas.height > 0 && h > insets.top + insets.bottom) ? canvas.height : h;
+        AffineTransform transform = g.getTransform();
+        double          scaleX    = getCacheScaleX(transform);
+        double          scaleY    = getCacheScaleY(transform);
+
+        if (!ImageCache.getInstance().isImageCachable(toPixels(cw, scaleX), toPixels(ch, scaleY), scaleX, scaleY)) {
+            paintDirectly(g, c, w, h, extendedCacheKeys, false);
+            return;
+        }
+
+        Image img = getImage(g.getDeviceConfiguration(), c, cw, ch, scaleX, scaleY, extendedCacheKeys);
+
+        if (img == null) {
+            paintDirectly(g, c, w, h, extendedCacheKeys, false);
+        } else if (scaleX == 1 && scaleY == 1) {
+            if (cw == w && ch == h) {
+                g.drawImage(img, 0, 0, null);
+            } else {
+                ImageScalingHelper.paint(g, 0, 0, w, h, img, cw, ch, insets);
+            }
+        } else {
+
+            // Stretch in device pixels, with the insets scaled to match.
+            Insets scaledInsets = new Insets(toPixels(insets.top, scaleY), toPixels(insets.left, scaleX), toPixels(insets.bottom, scaleY),
+                                             toPixels(insets.right, scaleX));
+
+            g.scale(1 / scaleX, 1 / scaleY);
+            ImageScalingHelper.paint(g, 0, 0, toPixels(w, scaleX), toPixels(h, scaleY), img, toPixels(cw, scaleX), toPixels(ch, scaleY),
+                                     scaledInsets);
+            g.setTransform(transform);
         }
     }
 
@@ -632,33 +867,62 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
      * @param w                 the component width.
      * @param h                 the component height.
      * @param extendedCacheKeys extended cache keys.
+     * @param cached            {@code true} if painting an image for the image
+     *                          cache, {@code false} if painting the component.
      */
-    private void paintDirectly(Graphics2D g, JComponent c, int w, int h, Object[] extendedCacheKeys) {
+    private void paintDirectly(Graphics2D g, JComponent c, int w, int h, Object[] extendedCacheKeys, boolean cached) {
+        PainterStatistics stats = getStatistics();
+
         g = (Graphics2D) g.create();
         configureGraphics(g);
-        doPaint(g, c, w, h, extendedCacheKeys);
+
+        if (stats == null) {
+            doPaint(g, c, w, h, extendedCacheKeys);
+        } else {
+            long start = System.nanoTime();
+
+            doPaint(g, c, w, h, extendedCacheKeys);
+            stats.recordRender(System.nanoTime() - start, cached);
+        }
+
         g.dispose();
     }
 
     /**
      * Gets the rendered image for this painter at the requested size, either
-     * from cache or create a new one
+     * from cache or create a new one. The image is rendered at the given
+     * scale, so it is the component size times the scale in device pixels.
+     *
+     * <p>The image is a VolatileImage or a BufferedImage, as
+     * {@link #isVolatileBacked(GraphicsConfiguration)} decides for the
+     * configuration.</p>
      *
      * @param  config            the graphics configuration.
      * @param  c                 the component to paint.
      * @param  w                 the component width.
      * @param  h                 the component height.
+     * @param  scaleX            the horizontal scale to render at.
+     * @param  scaleY            the vertical scale to render at.
      * @param  extendedCacheKeys extended cache keys.
      *
-     * @return the new image.
+     * @return the new image, or {@code null} if it kept losing its contents.
      */
-    private VolatileImage getImage(GraphicsConfiguration config, JComponent c, int w, int h, Object[] extendedCacheKeys) {
+    private Image getImage(GraphicsConfiguration config, JComponent c, int w, int h, double scaleX, double scaleY,
+            Object[] extendedCacheKeys) {
         ImageCache imageCache = ImageCache.getInstance();
+        int        pw         = toPixels(w, scaleX);
+        int        ph         = toPixels(h, scaleY);
 
         // get the buffer for this component
-        VolatileImage buffer = (VolatileImage) imageCache.getImage(config, w, h, this, extendedCacheKeys);
+        Image cached = imageCache.getImage(lookupKey.get().set(config, this, pw, ph, scaleX, scaleY, extendedCacheKeys));
 
-        int renderCounter = 0; // to avoid any potential, though unlikely,
+        if (!isVolatileBacked(config)) {
+            return getBufferedImage(config, c, w, h, scaleX, scaleY, extendedCacheKeys, cached);
+        }
+
+        VolatileImage buffer        = cached instanceof VolatileImage ? (VolatileImage) cached : null;
+        boolean       rendered      = false;
+        int           renderCounter = 0; // to avoid any potential, though unlikely,
 
         // infinite loop
         do {
@@ -677,7 +941,7 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
                 // if the buffer is null (hasn't been created), or isn't the
                 // right size, or has lost its contents,
                 // then recreate the buffer
-                if (buffer == null || buffer.getWidth() != w || buffer.getHeight() != h
+                if (buffer == null || buffer.getWidth() != pw || buffer.getHeight() != ph
                         || bufferStatus == VolatileImage.IMAGE_INCOMPATIBLE) {
 
                     // clear any resources related to the old back buffer
@@ -686,30 +950,29 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
                         buffer = null;
                     }
 
-                    // recreate the buffer
-                    buffer = config.createCompatibleVolatileImage(w, h, Transparency.TRANSLUCENT);
+                    // recreate the buffer, and validate it once, as a new
+                    // volatile image reports itself restored on its first
+                    // validation, which would render it a second time
+                    buffer = config.createCompatibleVolatileImage(pw, ph, Transparency.TRANSLUCENT);
+                    buffer.validate(config);
 
-                    // put in cache for future
-                    imageCache.setImage(buffer, config, w, h, this, extendedCacheKeys);
+                    // put in cache for future, resetting the key in case a
+                    // nested paint on this thread reused it
+                    imageCache.setImage(buffer, lookupKey.get().set(config, this, pw, ph, scaleX, scaleY, extendedCacheKeys));
                 }
 
-                // create the graphics context with which to paint to the buffer
-                Graphics2D bg = buffer.createGraphics();
-
-                // clear the background before configuring the graphics
-                bg.setComposite(AlphaComposite.Clear);
-                bg.fillRect(0, 0, w, h);
-                bg.setComposite(AlphaComposite.SrcOver);
-                configureGraphics(bg);
-
                 // paint the painter into buffer
-                paintDirectly(bg, c, w, h, extendedCacheKeys);
-
-                // close buffer graphics
-                bg.dispose();
+                renderImage(buffer.createGraphics(), c, w, h, pw, ph, scaleX, scaleY, extendedCacheKeys);
+                rendered = true;
             }
         } while (buffer.contentsLost() && renderCounter++ < 3);
 
+        PainterStatistics stats = getStatistics();
+
+        if (stats != null) {
+            stats.recordCacheLookup(!rendered);
+        }
+
         // check if we failed
         if (renderCounter == 3)
             return null;
@@ -719,38 +982,145 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
     }
 
     /**
-     * Clamp the value to legal limits. These are between 0.0f and 1.0f,
-     * inclusive.
+     * Gets the rendered image for this painter as a BufferedImage, rendering
+     * it if the cached image is missing or is not a BufferedImage.
      *
-     * @param  value the original value.
+     * @param  config            the graphics configuration.
+     * @param  c                 the component to paint.
+     * @param  w                 the component width.
+     * @param  h                 the component height.
+     * @param  scaleX            the horizontal scale to render at.
+     * @param  scaleY            the vertical scale to render at.
+     * @param  extendedCacheKeys extended cache keys.
+     * @param  cached            the image found in the cache, or
+     *                           {@code null}.
      *
-     * @return the new value.
+     * @return the image.
      */
-    private float clamp(float value) {
-        if (value < 0) {
-            value = 0;
-        } else if (value > 1) {
-            value = 1;
+    private Image getBufferedImage(GraphicsConfiguration config, JComponent c, int w, int h, double scaleX, double scaleY,
+            Object[] extendedCacheKeys, Image cached) {
+        boolean hit = cached instanceof BufferedImage;
+
+        if (!hit) {
+            int           pw     = toPixels(w, scaleX);
+            int           ph     = toPixels(h, scaleY);
+            BufferedImage buffer = config.createCompatibleImage(pw, ph, Transparency.TRANSLUCENT);
+
+            renderImage(buffer.createGraphics(), c, w, h, pw, ph, scaleX, scaleY, extendedCacheKeys);
+
+            // put in cache for future, resetting the key in case a nested
+            // paint on this thread reused it
+            ImageCache.getInstance().setImage(buffer, lookupKey.get().set(config, this, pw, ph, scaleX, scaleY, extendedCacheKeys));
+            cached = buffer;
         }
 
-        return value;
+        PainterStatistics stats = getStatistics();
+
+        if (stats != null) {
+            stats.recordCacheLookup(hit);
+        }
+
+        return cached;
     }
 
     /**
-     * Clamp the value to legal limits. These are between 0 and 255, inclusive.
+     * Render the painter into a cached image, and dispose of the graphics.
      *
-     * @param  value the original value.
+     * @param bg                the graphics of the image.
+     * @param c                 the component to paint.
+     * @param w                 the component width.
+     * @param h                 the component height.
+     * @param pw                the image width.
+     * @param ph                the image height.
+     * @param scaleX            the horizontal scale to render at.
+     * @param scaleY            the vertical scale to render at.
+     * @param extendedCacheKeys extended cache keys.
+     */
+    private void renderImage(Graphics2D bg, JComponent c, int w, int h, int pw, int ph, double scaleX, double scaleY,
+            Object[] extendedCacheKeys) {
+
+        // clear the background before configuring the graphics
+        bg.setComposite(AlphaComposite.Clear);
+        bg.fillRect(0, 0, pw, ph);
+        bg.setComposite(AlphaComposite.SrcOver);
+        bg.scale(scaleX, scaleY);
+        configureGraphics(bg);
+
+        // paint the painter into the image
+        paintDirectly(bg, c, w, h, extendedCacheKeys, true);
+
+        // close image graphics
+        bg.dispose();
+    }
+
+    /**
+     * Get the cache backing named by the "SeaGlass.cacheBacking" system
+     * property.
      *
-     * @return the new value.
+     * @return the cache backing, {@code AUTOMATIC} if the property is not
+     *         set or not understood.
      */
-    private int clamp(int value) {
-        if (value < 0) {
-            value = 0;
-        } else if (value > 255) {
-            value = 255;
+    private static CacheBacking getDefaultCacheBacking() {
+        String backing = System.getProperty("SeaGlass.cacheBacking");
+
+        if ("volatile".equalsIgnoreCase(backing)) {
+            return CacheBacking.VOLATILE_IMAGE;
+        } else if ("buffered".equalsIgnoreCase(backing)) {
+            return CacheBacking.BUFFERED_IMAGE;
         }
 
-        return value;
+        return CacheBacking.AUTOMATIC;
+    }
+
+    /**
+     * Get the horizontal scale to render cached images at for a transform,
+     * such as the device scale of a high resolution screen. Transforms which
+     * rotate, shear or flip are not followed, and images are rendered at the
+     * component size for them as before.
+     *
+     * @param  transform the graphics transform.
+     *
+     * @return the scale, or 1.
+     */
+    private static double getCacheScaleX(AffineTransform transform) {
+        return isScaleOnly(transform) ? transform.getScaleX() : 1;
+    }
+
+    /**
+     * Get the vertical scale to render cached images at for a transform.
+     *
+     * @param  transform the graphics transform.
+     *
+     * @return the scale, or 1.
+     *
+     * @see    #getCacheScaleX(AffineTransform)
+     */
+    private static double getCacheScaleY(AffineTransform transform) {
+        return isScaleOnly(transform) ? transform.getScaleY() : 1;
+    }
+
+    /**
+     * Returns {@code true} if the transform only scales and translates.
+     *
+     * @param  transform the transform.
+     *
+     * @return {@code true} if the transform only scales and translates,
+     *         {@code false} otherwise.
+     */
+    private static boolean isScaleOnly(AffineTransform transform) {
+        return transform.getShearX() == 0 && transform.getShearY() == 0 && transform.getScaleX() > 0 && transform.getScaleY() > 0;
+    }
+
+    /**
+     * Convert a size to device pixels, rounding partly covered pixels up.
+     *
+     * @param  size  the size.
+     * @param  scale the scale.
+     *
+     * @return the size in device pixels.
+     */
+    private static int toPixels(int size, double scale) {
+        return scale == 1 ? size : (int) Math.ceil(size * scale - 1e-9);
     }
 
     /**
@@ -763,12 +1133,25 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
 
         /**
          * The cache modes.
+         *
+         * <ul>
+         *   <li>{@code NO_CACHING} paints directly every time.</li>
+         *   <li>{@code FIXED_SIZES} caches an image for each size painted.</li>
+         *   <li>{@code NINE_SQUARE_SCALE} caches one image at the canvas size
+         *     and stretches it to the size painted, leaving the stretching
+         *     insets unscaled. The painter must render something which is
+         *     uniform inside the insets in the stretching direction.</li>
+         * </ul>
          */
         public static enum CacheMode {
-            NO_CACHING, FIXED_SIZES
+            NO_CACHING, FIXED_SIZES, NINE_SQUARE_SCALE
         }
 
+        private static final Insets EMPTY_INSETS = new Insets(0, 0, 0, 0);
+
         private CacheMode cacheMode;
+        private Insets    stretchingInsets;
+        private Dimension canvasSize;
 
         /**
          * Creates a new PaintContext.
@@ -777,7 +1160,35 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
          *                  then set to no caching.
          */
         public PaintContext(CacheMode cacheMode) {
-            this.cacheMode = cacheMode == null ? CacheMode.NO_CACHING : cacheMode;
+            this.cacheMode        = cacheMode == null ? CacheMode.NO_CACHING : cacheMode;
+            this.stretchingInsets = EMPTY_INSETS;
+            this.canvasSize       = new Dimension(0, 0);
+        }
+
+        /**
+         * Creates a new PaintContext which stretches a cached image.
+         *
+         * @param  cacheMode        A hint as to which caching mode to use. If
+         *                          null, then set to no caching.
+         * @param  stretchingInsets the edges of the canvas which must not be
+         *                          stretched.
+         * @param  canvasSize       the size at which to render the cached
+         *                          image. A width or height of zero means that
+         *                          axis is not stretched.
+         *
+         * @throws IllegalArgumentException if a stretched axis of the canvas
+         *                                  is not larger than its insets.
+         */
+        public PaintContext(CacheMode cacheMode, Insets stretchingInsets, Dimension canvasSize) {
+            this(cacheMode);
+
+            if ((canvasSize.width > 0 && canvasSize.width <= stretchingInsets.left + stretchingInsets.right)
+                    || (canvasSize.height > 0 && canvasSize.height <= stretchingInsets.top + stretchingInsets.bottom)) {
+                throw new IllegalArgumentException("Canvas " + canvasSize + " does not fit the insets " + stretchingInsets);
+            }
+
+            this.stretchingInsets = (Insets) stretchingInsets.clone();
+            this.canvasSize       = new Dimension(canvasSize);
         }
 
         /**
@@ -788,6 +1199,24 @@ public abstract class AbstractRegionPainter implements SeaGlassPainter<JComponen
         public CacheMode getCacheMode() {
             return cacheMode;
         }
+
+        /**
+         * Returns the stretching insets. These must not be modified.
+         *
+         * @return the stretching insets.
+         */
+        public Insets getStretchingInsets() {
+            return stretchingInsets;
+        }
+
+        /**
+         * Returns the canvas size. This must not be modified.
+         *
+         * @return the canvas size.
+         */
+        public Dimension getCanvasSize() {
+            return canvasSize;
+        }
     }
 
     /**
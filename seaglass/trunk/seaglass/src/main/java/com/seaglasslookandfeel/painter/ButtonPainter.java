@@ -19,10 +19,13 @@
  */
 package com.seaglasslookandfeel.painter;
 
+import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Insets;
 
 import javax.swing.JComponent;
 
+import com.seaglasslookandfeel.SeaGlassStyle;
 import com.seaglasslookandfeel.painter.AbstractRegionPainter.PaintContext.CacheMode;
 import com.seaglasslookandfeel.painter.button.ButtonVariantPainter;
 import com.seaglasslookandfeel.painter.button.SegmentedButtonPainter;
@@ -60,7 +63,9 @@ public final class ButtonPainter extends AbstractRegionPainter {
     public ButtonPainter(Which state) {
         super();
 
-        this.ctx = new PaintContext(CacheMode.FIXED_SIZES);
+        // Buttons are vertical gradients with rounded ends, so render the
+        // ends once and stretch the middle to the button's width.
+        this.ctx = new PaintContext(CacheMode.NINE_SQUARE_SCALE, new Insets(0, 12, 0, 12), new Dimension(48, 0));
 
         standard = new SegmentedButtonPainter(state, ctx);
         textured = new TexturedButtonPainter(state, ctx);
@@ -70,9 +75,17 @@ public final class ButtonPainter extends AbstractRegionPainter {
      * {@inheritDoc}
      */
     protected Object[] getExtendedCacheKeys(JComponent c) {
-        Object[] extendedCacheKeys = new Object[] {};
+        Object  buttonType      = c.getClientProperty("JButton.buttonType");
+        Object  segmentPosition = c.getClientProperty("JButton.segmentPosition");
+        String  sizeVariant     = SeaGlassStyle.getSizeVariant(c);
+        boolean inToolBar       = isInToolBar(c);
+
+        // The common case paints the same for every button.
+        if (buttonType == null && segmentPosition == null && sizeVariant == null && !inToolBar) {
+            return null;
+        }
 
-        return extendedCacheKeys;
+        return new Object[] { buttonType, segmentPosition, sizeVariant, Boolean.valueOf(inToolBar) };
     }
 
     /**
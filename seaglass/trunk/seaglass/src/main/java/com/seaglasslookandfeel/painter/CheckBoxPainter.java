@@ -89,6 +89,14 @@ public final class CheckBoxPainter extends AbstractCommonColorsPainter {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    protected Object[] getExtendedCacheKeys(JComponent c) {
+        // Only the focus ring depends on the toolbar.
+        return focused ? getInToolBarCacheKeys(c) : null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -116,6 +116,12 @@ import com.seaglasslookandfeel.painter.util.ShapeGenerator     BACKGROUND_DISABL
         return ctx;
     }
 
+    @Override
+    protected Object[] getExtendedCacheKeys(JComponent c) {
+        // The focus ring depends on the toolbar.
+        return getInToolBarCacheKeys(c);
+    }
+
     private void paintDisabled(Graphics2D g, JComponent c, int width, int height) {
  CommonControlState getButtonType(Which statese BACKGROUND_DISABLED_PRESSED:
             paintDropShadow(g, width, height, true);
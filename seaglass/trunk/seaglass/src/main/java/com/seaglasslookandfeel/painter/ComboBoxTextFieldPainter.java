@@ -48,6 +48,11 @@ public final class ComboBoxTextFieldPainter extends AbstractCommonColorsPainter
         this.type = (state == Which.BACKGROUND_DISABLED) ? CommonControlState.DISABLED : CommonControlState.ENABLED;
     }
 
+    @Override
+    protected Object[] getExtendedCacheKeys(JComponent c) {
+        return new Object[] { c.getBackground() };
+    }
+
     @Override
     protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
         Shape s = shapeGenerator.createRoundRectangle(3, 3, width - 2, height - 6, 
@@ -21,37 +21,220 @@ package com.seaglasslookandfeel.painter;
 
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.awt.print.PrinterGraphics;
+import java.lang.ref.SoftReference;
 
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 import com.seaglasslookandfeel.icons.DesktopPane;
 import com.seaglasslookandfeel.painter.AbstractRegionPainter.PaintContext.CacheMode;
 
 /**
  * Sea Glass's DesktopPanePainter.
+ *
+ * <p>The background is a scaled vector scene which is slow to render, and a
+ * desktop is almost always too large for the image cache. So each desktop
+ * keeps the scene rendered at the last size it was painted in an image of its
+ * own, and its damaged parts are painted from that. The painter is shared by
+ * all desktops, so the image and the resize state are kept on the desktop, in
+ * a client property.</p>
+ *
+ * <p>While the desktop is being resized on the event dispatch thread, the
+ * last image is stretched to the new size, and the scene is rendered again at
+ * full quality once the size has stayed the same for {@link #SETTLE_DELAY}
+ * milliseconds.</p>
  */
 public final class DesktopPanePainter extends AbstractRegionPainter {
     public static enum Which {
         BACKGROUND_ENABLED
     }
 
+    /**
+     * How long the size must stay the same, in milliseconds, before the scene
+     * is rendered again after a resize.
+     */
+    public static final int SETTLE_DELAY = 200;
+
+    /** The client property holding a desktop's {@link DesktopState}. */
+    private static final String STATE_KEY = "SeaGlass.DesktopPanePainter.state";
 
     private PaintContext ctx;
 
     public DesktopPanePainter(Which state) {
         super();
-        this.ctx = new PaintContext(CacheMode.FIXED_SIZES);
+        // The painter caches its own images.
+        this.ctx = new PaintContext(CacheMode.NO_CACHING);
     }
 
     protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
-        if (c.isOpaque()) {
-            DesktopPane panePainter = new DesktopPane();
-            panePainter.setDimension(new Dimension(width, height));
-            panePainter.paintIcon(c, g, 0, 0);
+        if (!c.isOpaque()) {
+            return;
+        }
+
+        GraphicsConfiguration config = g.getDeviceConfiguration();
+        DesktopState          state  = getState(c);
+        Background            bg     = state.background;
+        BufferedImage         image  = bg == null ? null : bg.getImage(config);
+
+        if (image != null && bg.width == width && bg.height == height) {
+            g.drawImage(image, 0, 0, null);
+        } else if (image != null && isResizing(g, state)) {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+        } else if (g instanceof PrinterGraphics || config == null) {
+            paintScene(g, c, width, height);
+        } else {
+            image = config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+
+            Graphics2D ig = image.createGraphics();
+
+            paintScene(ig, c, width, height);
+            ig.dispose();
+
+            state.background = new Background(image, config);
+            g.drawImage(image, 0, 0, null);
         }
     }
 
     protected final PaintContext getPaintContext() {
         return ctx;
     }
+
+    /**
+     * Get the state of a desktop, creating it the first time it is painted.
+     *
+     * @param  c the desktop.
+     *
+     * @return the state.
+     */
+    private DesktopState getState(JComponent c) {
+        Object state = c.getClientProperty(STATE_KEY);
+
+        if (!(state instanceof DesktopState)) {
+            state = new DesktopState(c);
+            c.putClientProperty(STATE_KEY, state);
+        }
+
+        return (DesktopState) state;
+    }
+
+    /**
+     * Paint the scene.
+     *
+     * @param g      the Graphics2D context to paint with.
+     * @param c      the desktop.
+     * @param width  the width.
+     * @param height the height.
+     */
+    private void paintScene(Graphics2D g, JComponent c, int width, int height) {
+        DesktopPane panePainter = new DesktopPane();
+
+        panePainter.setDimension(new Dimension(width, height));
+        panePainter.paintIcon(c, g, 0, 0);
+    }
+
+    /**
+     * Returns {@code true} if the desktop is being resized, in which case its
+     * repaint is scheduled for when the size settles. A paint at a new size
+     * is taken as part of a resize if the desktop's size also changed less
+     * than {@link #SETTLE_DELAY} ago. Paints off the event dispatch thread,
+     * such as printing, are never part of a resize.
+     *
+     * @param  g     the Graphics2D context being painted.
+     * @param  state the state of the desktop.
+     *
+     * @return {@code true} if the desktop is being resized, {@code false}
+     *         otherwise.
+     */
+    private boolean isResizing(Graphics2D g, DesktopState state) {
+        if (g instanceof PrinterGraphics || !SwingUtilities.isEventDispatchThread()) {
+            return false;
+        }
+
+        long    now      = System.currentTimeMillis();
+        boolean resizing = now - state.lastResize < SETTLE_DELAY;
+
+        state.lastResize = now;
+
+        if (resizing) {
+            state.settleTimer.restart();
+        }
+
+        return resizing;
+    }
+
+    /**
+     * The cached scene and resize state of one desktop.
+     */
+    private static class DesktopState {
+
+        /** The scene rendered at the last size painted. */
+        volatile Background background;
+
+        /**
+         * When the painted size last changed, in milliseconds. Only used on
+         * the event dispatch thread.
+         */
+        long lastResize;
+
+        /** Repaints the desktop once its size settles. */
+        final Timer settleTimer;
+
+        /**
+         * Creates a new DesktopState object.
+         *
+         * @param c the desktop.
+         */
+        DesktopState(final JComponent c) {
+            settleTimer = new Timer(SETTLE_DELAY, new ActionListener() {
+                    public void actionPerformed(ActionEvent e) {
+                        c.repaint();
+                    }
+                });
+            settleTimer.setRepeats(false);
+        }
+    }
+
+    /**
+     * The scene rendered at one size for one graphics configuration. The
+     * image is softly held, as it may be large.
+     */
+    private static class Background {
+        final SoftReference<BufferedImage> image;
+        final GraphicsConfiguration        config;
+        final int                          width;
+        final int                          height;
+
+        /**
+         * Creates a new Background object.
+         *
+         * @param image  the rendered scene.
+         * @param config the configuration it is compatible with.
+         */
+        Background(BufferedImage image, GraphicsConfiguration config) {
+            this.image  = new SoftReference<BufferedImage>(image);
+            this.config = config;
+            this.width  = image.getWidth();
+            this.height = image.getHeight();
+        }
+
+        /**
+         * Get the image, if it is still held and suits the configuration.
+         *
+         * @param  config the configuration being painted.
+         *
+         * @return the image, or {@code null}.
+         */
+        BufferedImage getImage(GraphicsConfiguration config) {
+            return config == this.config ? image.get() : null;
+        }
+    }
 }
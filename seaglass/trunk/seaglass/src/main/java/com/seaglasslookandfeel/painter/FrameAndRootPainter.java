@@ -21,7 +21,9 @@ package com.seaglasslookandfeel.painter;
 
 import java.awt.Color;
 import java.awt.Component;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Insets;
 import java.awt.Paint;
 import java.awt.Shape;
 import java.awt.geom.Rectangle2D;
@@ -92,23 +94,24 @@ public final class FrameAndRootPainter extends AbstractRegionPainter {
     public FrameAndRootPainter(Which state) {
         super();
         this.state = state;
-        this.ctx   = new PaintContext(PaintContext.CacheMode.FIXED_SIZES);
+
+        // The frame is a stack of vertical gradients with rounded corners, so
+        // render it at its real height and stretch it horizontally. This keeps
+        // even large frames within the image cache's size limit.
+        this.ctx = new PaintContext(PaintContext.CacheMode.NINE_SQUARE_SCALE, new Insets(0, 8, 0, 8), new Dimension(24, 0));
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>The frame's appearance depends on its title bar and toolbar heights,
+     * on whether it uses the unified toolbar look, and on its background.</p>
      */
-    protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
+    protected Object[] getExtendedCacheKeys(JComponent c) {
         if (state == Which.BACKGROUND_ENABLED_NOFRAME) {
-            return;
+            return null;
         }
 
-        Shape s = shapeGenerator.createRoundRectangle(0, 0, (width - 1), (height - 1), CornerSize.FRAME_BORDER,
-                                                      CornerStyle.ROUNDED, CornerStyle.SQUARE, CornerStyle.SQUARE, CornerStyle.ROUNDED);
-
-        g.setPaint(getFrameBorderPaint(s));
-        g.draw(s);
-
         JMenuBar    mb     = null;
         Component[] cArray = null;
 
@@ -148,7 +151,31 @@ public final class FrameAndRootPainter extends AbstractRegionPainter {
             titleHeight += mb.getHeight();
         }
 
-        if (c.getClientProperty(SeaGlassRootPaneUI.UNIFIED_TOOLBAR_LOOK) == Boolean.TRUE) {
+        return new Object[] {
+                   titleHeight, topToolBarHeight, bottomToolBarHeight,
+                   c.getClientProperty(SeaGlassRootPaneUI.UNIFIED_TOOLBAR_LOOK) == Boolean.TRUE, c.getBackground()
+               };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
+        if (state == Which.BACKGROUND_ENABLED_NOFRAME) {
+            return;
+        }
+
+        Shape s = shapeGenerator.createRoundRectangle(0, 0, (width - 1), (height - 1), CornerSize.FRAME_BORDER,
+                                                      CornerStyle.ROUNDED, CornerStyle.SQUARE, CornerStyle.SQUARE, CornerStyle.ROUNDED);
+
+        g.setPaint(getFrameBorderPaint(s));
+        g.draw(s);
+
+        int titleHeight         = (Integer) extendedCacheKeys[0];
+        int topToolBarHeight    = (Integer) extendedCacheKeys[1];
+        int bottomToolBarHeight = (Integer) extendedCacheKeys[2];
+
+        if ((Boolean) extendedCacheKeys[3]) {
             // Draw background gradient.
             s = shapeGenerator.createRoundRectangle(1, 1, width - 2, height - 2, CornerSize.FRAME_INNER_HIGHLIGHT,
                                                     CornerStyle.ROUNDED, CornerStyle.SQUARE, CornerStyle.SQUARE, CornerStyle.ROUNDED);
@@ -163,7 +190,7 @@ public final class FrameAndRootPainter extends AbstractRegionPainter {
             // Paint contents.
            s = shapeGenerator.createRoundRectangle(1, titleHeight, width - 2, height - titleHeight - 1, CornerSize.FRAME_INNER_HIGHLIGHT,
                                                     CornerStyle.SQUARE, CornerStyle.SQUARE, CornerStyle.SQUARE, CornerStyle.SQUARE);
-            g.setPaint(c.getBackground());
+            g.setPaint((Color) extendedCacheKeys[4]);
             g.fill(s);
             // Draw separator line.
             g.setPaint(decodeColor("seaGlassMenuIcon"));
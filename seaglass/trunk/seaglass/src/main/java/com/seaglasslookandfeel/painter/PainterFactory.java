@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel.painter;
+
+/**
+ * Creates painters from their state, calling the painter constructors
+ * directly instead of looking them up by reflection.
+ *
+ * <p>Every painter with a {@code Which} enum must be listed in
+ * {@link #createPainter(Enum)}. The method returns the interface type so that
+ * verifying it does not load every painter class.</p>
+ */
+public final class PainterFactory {
+
+    /**
+     * Not instantiable.
+     */
+    private PainterFactory() {
+    }
+
+    /**
+     * Create the painter for a state.
+     *
+     * @param  which the state, a constant of a painter's {@code Which} enum.
+     *
+     * @return the painter, or {@code null} if the state belongs to no painter
+     *         known here.
+     */
+    public static SeaGlassPainter<?> createPainter(Enum<?> which) {
+        SeaGlassPainter<?> painter = newPainter(which);
+
+        if (painter instanceof AbstractRegionPainter) {
+            ((AbstractRegionPainter) painter).setStatisticsName(painter.getClass().getSimpleName() + "." + which.name());
+        }
+
+        return painter;
+    }
+
+    /**
+     * Call the constructor of the painter for a state.
+     *
+     * @param  which the state.
+     *
+     * @return the painter, or {@code null} if the state belongs to no painter
+     *         known here.
+     */
+    private static SeaGlassPainter<?> newPainter(Enum<?> which) {
+        if (which instanceof ArrowButtonPainter.Which) {
+            return new ArrowButtonPainter((ArrowButtonPainter.Which) which);
+        } else if (which instanceof ButtonPainter.Which) {
+            return new ButtonPainter((ButtonPainter.Which) which);
+        } else if (which instanceof CheckBoxMenuItemPainter.Which) {
+            return new CheckBoxMenuItemPainter((CheckBoxMenuItemPainter.Which) which);
+        } else if (which instanceof CheckBoxPainter.Which) {
+            return new CheckBoxPainter((CheckBoxPainter.Which) which);
+        } else if (which instanceof ComboBoxArrowButtonPainter.Which) {
+            return new ComboBoxArrowButtonPainter((ComboBoxArrowButtonPainter.Which) which);
+        } else if (which instanceof ComboBoxPainter.Which) {
+            return new ComboBoxPainter((ComboBoxPainter.Which) which);
+        } else if (which instanceof ComboBoxTextFieldPainter.Which) {
+            return new ComboBoxTextFieldPainter((ComboBoxTextFieldPainter.Which) which);
+        } else if (which instanceof ContentPanePainter.Which) {
+            return new ContentPanePainter((ContentPanePainter.Which) which);
+        } else if (which instanceof DesktopIconPainter.Which) {
+            return new DesktopIconPainter((DesktopIconPainter.Which) which);
+        } else if (which instanceof DesktopPanePainter.Which) {
+            return new DesktopPanePainter((DesktopPanePainter.Which) which);
+        } else if (which instanceof FileChooserPainter.Which) {
+            return new FileChooserPainter((FileChooserPainter.Which) which);
+        } else if (which instanceof FrameAndRootPainter.Which) {
+            return new FrameAndRootPainter((FrameAndRootPainter.Which) which);
+        } else if (which instanceof MenuBarMenuPainter.Which) {
+            return new MenuBarMenuPainter((MenuBarMenuPainter.Which) which);
+        } else if (which instanceof MenuItemPainter.Which) {
+            return new MenuItemPainter((MenuItemPainter.Which) which);
+        } else if (which instanceof MenuPainter.Which) {
+            return new MenuPainter((MenuPainter.Which) which);
+        } else if (which instanceof OptionPanePainter.Which) {
+            return new OptionPanePainter((OptionPanePainter.Which) which);
+        } else if (which instanceof PopupMenuPainter.Which) {
+            return new PopupMenuPainter((PopupMenuPainter.Which) which);
+        } else if (which instanceof PopupMenuSeparatorPainter.Which) {
+            return new PopupMenuSeparatorPainter((PopupMenuSeparatorPainter.Which) which);
+        } else if (which instanceof ProgressBarPainter.Which) {
+            return new ProgressBarPainter((ProgressBarPainter.Which) which);
+        } else if (which instanceof RadioButtonMenuItemPainter.Which) {
+            return new RadioButtonMenuItemPainter((RadioButtonMenuItemPainter.Which) which);
+        } else if (which instanceof RadioButtonPainter.Which) {
+            return new RadioButtonPainter((RadioButtonPainter.Which) which);
+        } else if (which instanceof ScrollBarButtonPainter.Which) {
+            return new ScrollBarButtonPainter((ScrollBarButtonPainter.Which) which);
+        } else if (which instanceof ScrollBarThumbPainter.Which) {
+            return new ScrollBarThumbPainter((ScrollBarThumbPainter.Which) which);
+        } else if (which instanceof ScrollBarTrackPainter.Which) {
+            return new ScrollBarTrackPainter((ScrollBarTrackPainter.Which) which);
+        } else if (which instanceof ScrollPanePainter.Which) {
+            return new ScrollPanePainter((ScrollPanePainter.Which) which);
+        } else if (which instanceof SearchFieldIconPainter.Which) {
+            return new SearchFieldIconPainter((SearchFieldIconPainter.Which) which);
+        } else if (which instanceof SearchFieldPainter.Which) {
+            return new SearchFieldPainter((SearchFieldPainter.Which) which);
+        } else if (which instanceof SeparatorPainter.Which) {
+            return new SeparatorPainter((SeparatorPainter.Which) which);
+        } else if (which instanceof SliderThumbPainter.Which) {
+            return new SliderThumbPainter((SliderThumbPainter.Which) which);
+        } else if (which instanceof SliderTrackPainter.Which) {
+            return new SliderTrackPainter((SliderTrackPainter.Which) which);
+        } else if (which instanceof SpinnerFormattedTextFieldPainter.Which) {
+            return new SpinnerFormattedTextFieldPainter((SpinnerFormattedTextFieldPainter.Which) which);
+        } else if (which instanceof SpinnerNextButtonPainter.Which) {
+            return new SpinnerNextButtonPainter((SpinnerNextButtonPainter.Which) which);
+        } else if (which instanceof SpinnerPreviousButtonPainter.Which) {
+            return new SpinnerPreviousButtonPainter((SpinnerPreviousButtonPainter.Which) which);
+        } else if (which instanceof SplitPaneDividerPainter.Which) {
+            return new SplitPaneDividerPainter((SplitPaneDividerPainter.Which) which);
+        } else if (which instanceof SplitPanePainter.Which) {
+            return new SplitPanePainter((SplitPanePainter.Which) which);
+        } else if (which instanceof TabbedPaneTabAreaPainter.Which) {
+            return new TabbedPaneTabAreaPainter((TabbedPaneTabAreaPainter.Which) which);
+        } else if (which instanceof TabbedPaneTabCloseButtonPainter.Which) {
+            return new TabbedPaneTabCloseButtonPainter((TabbedPaneTabCloseButtonPainter.Which) which);
+        } else if (which instanceof TabbedPaneTabPainter.Which) {
+            return new TabbedPaneTabPainter((TabbedPaneTabPainter.Which) which);
+        } else if (which instanceof TableHeaderPainter.Which) {
+            return new TableHeaderPainter((TableHeaderPainter.Which) which);
+        } else if (which instanceof TableHeaderRendererPainter.Which) {
+            return new TableHeaderRendererPainter((TableHeaderRendererPainter.Which) which);
+        } else if (which instanceof TextComponentPainter.Which) {
+            return new TextComponentPainter((TextComponentPainter.Which) which);
+        } else if (which instanceof TitlePaneCloseButtonPainter.Which) {
+            return new TitlePaneCloseButtonPainter((TitlePaneCloseButtonPainter.Which) which);
+        } else if (which instanceof TitlePaneIconifyButtonPainter.Which) {
+            return new TitlePaneIconifyButtonPainter((TitlePaneIconifyButtonPainter.Which) which);
+        } else if (which instanceof TitlePaneMaximizeButtonPainter.Which) {
+            return new TitlePaneMaximizeButtonPainter((TitlePaneMaximizeButtonPainter.Which) which);
+        } else if (which instanceof TitlePaneMenuButtonPainter.Which) {
+            return new TitlePaneMenuButtonPainter((TitlePaneMenuButtonPainter.Which) which);
+        } else if (which instanceof ToolBarHandlePainter.Which) {
+            return new ToolBarHandlePainter((ToolBarHandlePainter.Which) which);
+        } else if (which instanceof ToolBarPainter.Which) {
+            return new ToolBarPainter((ToolBarPainter.Which) which);
+        } else if (which instanceof ToolBarToggleButtonPainter.Which) {
+            return new ToolBarToggleButtonPainter((ToolBarToggleButtonPainter.Which) which);
+        } else if (which instanceof ToolTipPainter.Which) {
+            return new ToolTipPainter((ToolTipPainter.Which) which);
+        } else if (which instanceof TreeCellEditorPainter.Which) {
+            return new TreeCellEditorPainter((TreeCellEditorPainter.Which) which);
+        } else if (which instanceof TreeCellPainter.Which) {
+            return new TreeCellPainter((TreeCellPainter.Which) which);
+        } else if (which instanceof TreePainter.Which) {
+            return new TreePainter((TreePainter.Which) which);
+        }
+
+        return null;
+    }
+}
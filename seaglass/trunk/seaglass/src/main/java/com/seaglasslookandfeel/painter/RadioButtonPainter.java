@@ -97,6 +97,12 @@ public final class RadioButtonPainter extends AbstractCommonColorsPainter {
         type = getButtonType(state);
     }
 
+    @Override
+    protected Object[] getExtendedCacheKeys(JComponent c) {
+        // Only the focus ring depends on the toolbar.
+        return focused ? getInToolBarCacheKeys(c) : null;
+    }
+
     @Override
     protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -20,7 +20,9 @@
 package com.seaglasslookandfeel.painter;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Insets;
 import java.awt.Paint;
 import java.awt.Rectangle;
 import java.awt.Shape;
@@ -56,7 +58,8 @@ public final class ScrollBarTrackPainter extends AbstractRegionPainter {
 
     public ScrollBarTrackPainter(Which state) {
         super();
-        this.ctx = new PaintContext(CacheMode.FIXED_SIZES);
+        // The track is a pair of vertical gradients, so it stretches horizontally.
+        this.ctx = new PaintContext(CacheMode.NINE_SQUARE_SCALE, new Insets(0, 0, 0, 0), new Dimension(16, 0));
     }
 
     @Override
@@ -62,6 +62,22 @@ public final class SearchFieldPainter extends AbstractCommonColorsPainter {
         focused = (state == Which.BORDER_FOCUSED);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    protected Object[] getExtendedCacheKeys(JComponent c) {
+        switch (state) {
+
+        case BACKGROUND_DISABLED:
+        case BACKGROUND_ENABLED:
+        case BACKGROUND_SELECTED:
+            return new Object[] { c.getBackground() };
+
+        default:
+            return getInToolBarCacheKeys(c);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -131,6 +131,22 @@ public final class SliderThumbPainter extends AbstractCommonColorsPainter {
         }
     }
 
+    /**
+     * @see com.seaglasslookandfeel.painter.AbstractRegionPainter#getExtendedCacheKeys(javax.swing.JComponent)
+     */
+    @Override
+    protected Object[] getExtendedCacheKeys(JComponent c) {
+        boolean arrowShape = isDiscrete || c.getClientProperty("Slider.paintThumbArrowShape") == Boolean.TRUE;
+        boolean inToolBar  = isFocused && isInToolBar(c);
+
+        // The common case paints the same for every slider.
+        if (arrowShape == isDiscrete && !inToolBar) {
+            return null;
+        }
+
+        return new Object[] { Boolean.valueOf(arrowShape), Boolean.valueOf(inToolBar) };
+    }
+
     /**
      * @see com.seaglasslookandfeel.painter.AbstractRegionPainter#doPaint(java.awt.Graphics2D,
      *      javax.swing.JComponent, int, int, java.lang.Object[])
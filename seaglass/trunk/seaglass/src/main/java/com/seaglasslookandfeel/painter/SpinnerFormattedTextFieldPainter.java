@@ -51,6 +51,11 @@ public final class SpinnerFormattedTextFieldPainter extends AbstractCommonColors
         focused = (state == Which.BACKGROUND_FOCUSED || state == Which.BACKGROUND_SELECTED_FOCUSED);
     }
 
+    @Override
+    protected Object[] getExtendedCacheKeys(JComponent c) {
+        return new Object[] { c.getBackground(), Boolean.valueOf(focused && isInToolBar(c)) };
+    }
+
     @Override
     protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
         boolean useFocusColors = isInToolBar(c);
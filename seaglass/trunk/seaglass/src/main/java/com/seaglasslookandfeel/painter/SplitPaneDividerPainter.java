@@ -60,6 +60,18 @@ public final class SplitPaneDividerPainter extends AbstractCommonColorsPainter {
         this.ctx = new PaintContext(CacheMode.FIXED_SIZES);
     }
 
+    @Override
+    protected Object[] getExtendedCacheKeys(JComponent c) {
+        switch (state) {
+        case BACKGROUND_FOCUSED:
+        case FOREGROUND_FOCUSED:
+        case FOREGROUND_FOCUSED_VERTICAL:
+            // Only the focus ring depends on the toolbar.
+            return getInToolBarCacheKeys(c);
+        }
+        return null;
+    }
+
     @Override
     protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
         switch (state) {
@@ -98,9 +98,15 @@ public final class TabbedPaneTabPainter extends AbstractCommonColorsPainter {
      * {@inheritDoc}
      */
     protected Object[] getExtendedCacheKeys(JComponent c) {
-        Object[] extendedCacheKeys = new Object[] {};
+        SegmentType segmentType = getSegmentType(c);
+        boolean     inToolBar   = isInToolBar(c);
 
-        return extendedCacheKeys;
+        // The scroll buttons and plain tabs paint the same.
+        if (segmentType == SegmentType.NONE && !inToolBar) {
+            return null;
+        }
+
+        return new Object[] { segmentType, Boolean.valueOf(inToolBar) };
     }
 
     /**
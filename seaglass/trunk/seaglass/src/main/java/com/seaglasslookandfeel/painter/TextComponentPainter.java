@@ -20,7 +20,9 @@
 package com.seaglasslookandfeel.painter;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Insets;
 import java.awt.Shape;
 
 import javax.swing.JComponent;
@@ -28,6 +30,7 @@ import javax.swing.JTextArea;
 import javax.swing.plaf.ColorUIResource;
 
 import com.seaglasslookandfeel.effect.SeaGlassInternalShadowEffect;
+import com.seaglasslookandfeel.painter.AbstractRegionPainter.PaintContext.CacheMode;
 import com.seaglasslookandfeel.painter.util.ShapeGenerator.CornerSize;
 
 /**
@@ -54,9 +57,6 @@ public final class TextComponentPainter extends AbstractCommonColorsPainter {
     private CommonControlState type;
     private boolean            focused;
 
-    // Array of current component colors, updated in each paint call
-    private Object[]           componentColors;
-
     /**
      * Creates a new TextComponentPainter object.
      *
@@ -65,20 +65,23 @@ public final class TextComponentPainter extends AbstractCommonColorsPainter {
     public TextComponentPainter(Which state) {
         super();
         this.state = state;
-        this.ctx   = new PaintContext(AbstractRegionPainter.PaintContext.CacheMode.FIXED_SIZES);
-
         type    = (state == Which.BACKGROUND_DISABLED || state == Which.BACKGROUND_SOLID_DISABLED || state == Which.BORDER_DISABLED)
             ? CommonControlState.DISABLED : CommonControlState.ENABLED;
         focused = (state == Which.BORDER_FOCUSED);
+
+        // The border is the same all the way along each edge, so render it
+        // once and stretch it. The focus ring and corners fit in the insets.
+        if (state == Which.BORDER_DISABLED || state == Which.BORDER_ENABLED || state == Which.BORDER_FOCUSED) {
+            this.ctx = new PaintContext(CacheMode.NINE_SQUARE_SCALE, new Insets(8, 8, 8, 8), new Dimension(24, 24));
+        } else {
+            this.ctx = new PaintContext(CacheMode.FIXED_SIZES);
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
-        // Populate componentColors array with colors calculated in getExtendedCacheKeys call.
-        componentColors = extendedCacheKeys;
-
         int x = focusInsets.left;
         int y = focusInsets.top;
 
@@ -90,7 +93,7 @@ public final class TextComponentPainter extends AbstractCommonColorsPainter {
         case BACKGROUND_DISABLED:
         case BACKGROUND_ENABLED:
         case BACKGROUND_SELECTED:
-            paintBackground(g, c, x, y, width, height);
+            paintBackground(g, c, x, y, width, height, extendedCacheKeys);
             break;
 
         case BACKGROUND_SOLID_DISABLED:
@@ -114,6 +117,8 @@ public final class TextComponentPainter extends AbstractCommonColorsPainter {
 
         if (state == Which.BACKGROUND_ENABLED) {
             extendedCacheKeys = new Object[] { getComponentColor(c, "background", defaultBackground, 0.0f, 0.0f, 0) };
+        } else if (ctx.getCacheMode() == CacheMode.NINE_SQUARE_SCALE) {
+            extendedCacheKeys = getInToolBarCacheKeys(c);
         }
 
         return extendedCacheKeys;
@@ -135,12 +140,13 @@ public final class TextComponentPainter extends AbstractCommonColorsPainter {
      * @param y      DOCUMENT ME!
      * @param width  DOCUMENT ME!
      * @param height DOCUMENT ME!
+     * @param extendedCacheKeys the colors calculated in getExtendedCacheKeys.
      */
-    private void paintBackground(Graphics2D g, JComponent c, int x, int y, int width, int height) {
+    private void paintBackground(Graphics2D g, JComponent c, int x, int y, int width, int height, Object[] extendedCacheKeys) {
         Color color = c.getBackground();
 
         if (state == Which.BACKGROUND_ENABLED) {
-            color = (Color) componentColors[0];
+            color = (Color) extendedCacheKeys[0];
         } else if (type == CommonControlState.DISABLED) {
             color = new Color(color.getRed(), color.getGreen(), color.getBlue(), 0x80);
         }
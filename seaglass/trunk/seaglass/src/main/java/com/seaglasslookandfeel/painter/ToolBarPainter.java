@@ -23,7 +23,6 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 
 import javax.swing.JComponent;
-import javax.swing.JToolBar;
 
 import com.seaglasslookandfeel.painter.AbstractRegionPainter.PaintContext.CacheMode;
 
@@ -43,7 +42,6 @@ public class ToolBarPainter extends AbstractRegionPainter {
     private PaintContext ctx;
     private Which state;
     private Color borderColor = decodeColor("seaGlassDropShadow");
-    private JToolBar toolbar;
 
     public ToolBarPainter(Which state) {
         super();
@@ -52,7 +50,6 @@ public class ToolBarPainter extends AbstractRegionPainter {
     }
 
     protected void doPaint(Graphics2D g, JComponent c, int width, int height, Object[] extendedCacheKeys) {
-        this.toolbar = (JToolBar) c;
         switch (state) {
             case BORDER_ENABLED:
                 paintBorder(g, width, height);
@@ -81,9 +81,7 @@ public abstract class ButtonVariantPainter extends AbstractCommonColorsPainter {
      * {@inheritDoc}
      */
     protected Object[] getExtendedCacheKeys(JComponent c) {
-        Object[] extendedCacheKeys = new Object[] {};
-
-        return extendedCacheKeys;
+        return null;
     }
 
     /**
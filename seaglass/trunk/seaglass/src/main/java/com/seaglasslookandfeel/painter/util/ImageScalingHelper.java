@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel.painter.util;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Insets;
+
+/**
+ * Paints an image at an arbitrary size by splitting it into nine squares. The
+ * corners are copied unscaled, the edges are stretched along their length, and
+ * the center is stretched in both directions.
+ *
+ * <p>Based on Nimbus's ImageScalingHelper by Jasper Potts. This was package
+ * local.</p>
+ */
+public class ImageScalingHelper {
+
+    /**
+     * Paint the image stretched to the destination size.
+     *
+     * <p>The stretched rows and columns should be uniform in the stretching
+     * direction, so no interpolation hint is needed and none is set.</p>
+     *
+     * @param g      the Graphics context to paint with.
+     * @param x      the destination x offset.
+     * @param y      the destination y offset.
+     * @param w      the destination width.
+     * @param h      the destination height.
+     * @param image  the image to paint.
+     * @param sw     the width of the part of the image to use.
+     * @param sh     the height of the part of the image to use.
+     * @param insets the size of the edges which must not be stretched. The
+     *               same insets are used for the source and the destination.
+     */
+    public static void paint(Graphics g, int x, int y, int w, int h, Image image, int sw, int sh, Insets insets) {
+        for (int row = 0; row < 3; row++) {
+            int sy1 = row == 0 ? 0 : (row == 1 ? insets.top : sh - insets.bottom);
+            int sy2 = row == 0 ? insets.top : (row == 1 ? sh - insets.bottom : sh);
+            int dy1 = row == 0 ? 0 : (row == 1 ? insets.top : h - insets.bottom);
+            int dy2 = row == 0 ? insets.top : (row == 1 ? h - insets.bottom : h);
+
+            if (sy2 <= sy1 || dy2 <= dy1) {
+                continue;
+            }
+
+            for (int col = 0; col < 3; col++) {
+                int sx1 = col == 0 ? 0 : (col == 1 ? insets.left : sw - insets.right);
+                int sx2 = col == 0 ? insets.left : (col == 1 ? sw - insets.right : sw);
+                int dx1 = col == 0 ? 0 : (col == 1 ? insets.left : w - insets.right);
+                int dx2 = col == 0 ? insets.left : (col == 1 ? w - insets.right : w);
+
+                if (sx2 <= sx1 || dx2 <= dx1) {
+                    continue;
+                }
+
+                g.drawImage(image, x + dx1, y + dy1, x + dx2, y + dy2, sx1, sy1, sx2, sy2, null);
+            }
+        }
+    }
+}
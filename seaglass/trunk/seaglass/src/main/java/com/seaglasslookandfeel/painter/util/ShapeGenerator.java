@@ -175,11 +175,24 @@ public class ShapeGenerator {
         }
     }
 
-    /** Used for generic shapes. */
-    private Path2D path = new Path2D.Double(Path2D.WIND_EVEN_ODD);
+    /**
+     * Used for generic shapes. Painters, and so their generators, are shared
+     * between components, so each painting thread gets its own path.
+     */
+    private final ThreadLocal<Path2D> paths = new ThreadLocal<Path2D>() {
+        @Override
+        protected Path2D initialValue() {
+            return new Path2D.Double(Path2D.WIND_EVEN_ODD);
+        }
+    };
 
-    /** Used for simple elliptical or circular shapes. */
-    private Ellipse2D ellipse = new Ellipse2D.Float();
+    /** Used for simple elliptical or circular shapes, one per thread. */
+    private final ThreadLocal<Ellipse2D> ellipses = new ThreadLocal<Ellipse2D>() {
+        @Override
+        protected Ellipse2D initialValue() {
+            return new Ellipse2D.Float();
+        }
+    };
 
     /**
      * Return a path for a rectangle with square corners.
@@ -256,7 +269,7 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     public Shape createOpenRectangle(final int x, final int y, final int w, final int h) {
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x + w, y);
         path.lineTo(x, y);
         path.lineTo(x, y + h);
@@ -279,7 +292,7 @@ public class ShapeGenerator {
         double xf = w / 12.0;
         double hf = h / 12.0;
 
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x, y + 7.0 * hf);
         path.lineTo(x + 2.0 * xf, y + 7.0 * hf);
         path.lineTo(x + 4.75 * xf, y + 10.0 * hf);
@@ -302,7 +315,7 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     public Shape createArrowLeft(final double x, final double y, final double w, final double h) {
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x + w, y);
         path.lineTo(x, y + h / 2.0);
         path.lineTo(x + w, y + h);
@@ -322,7 +335,7 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     public Shape createArrowRight(final double x, final double y, final double w, final double h) {
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x, y);
         path.lineTo(x + w, y + h / 2);
         path.lineTo(x, y + h);
@@ -342,7 +355,7 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     public Shape createArrowUp(final double x, final double y, final double w, final double h) {
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x, y + h);
         path.lineTo(x + w / 2, y);
         path.lineTo(x + w, y + h);
@@ -362,7 +375,7 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     public Shape createArrowDown(final double x, final double y, final double w, final double h) {
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x, y);
         path.lineTo(x + w / 2, y + h);
         path.lineTo(x + w, y);
@@ -384,7 +397,7 @@ public class ShapeGenerator {
     public Shape createProgressBarIndeterminatePattern(int x, int y, int w, int h) {
       final double wHalf   = w / 2.0;
       final double xOffset = 5;
-      path.reset();
+      Path2D path = resetPath();
       path.moveTo(xOffset, 0);
       path.lineTo(xOffset+wHalf, 0);
       path.curveTo(xOffset+wHalf-5, h/2-4, xOffset+wHalf+5, h/2+4, xOffset+wHalf, h);
@@ -411,7 +424,7 @@ public class ShapeGenerator {
         final int    right  = x + w;
         final double bottom = y + radius;
 
-        path.reset();
+        Path2D path = resetPath();
 
         // Upper edge.
         path.moveTo(x, bottom);
@@ -448,7 +461,7 @@ public class ShapeGenerator {
         final int right  = x + w;
         final int bottom = y + h;
 
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(left, top);
         path.lineTo(left, bottom);
         path.lineTo(right, bottom);
@@ -530,7 +543,7 @@ public class ShapeGenerator {
         final double bottomArcH = size == CornerSize.INTERIOR ? 0 : 1;
         final double bottomArcW = 3;
 
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x, y + topArc);
         path.quadTo(x, y, x + topArc, y);
         path.lineTo(x + w - topArc, y);
@@ -559,7 +572,7 @@ public class ShapeGenerator {
         final double yMid = y + h / 2.0;
 
         // Draw the circle.
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(xMid, y);
         path.quadTo(x, y, x, yMid);
         path.quadTo(x, y + h, xMid, y + h);
@@ -606,7 +619,7 @@ public class ShapeGenerator {
         final double xMid = x + w / 2.0;
         final double yMid = y + h / 2.0;
 
-        path.reset();
+        Path2D path = resetPath();
 
         final double xOffsetL = w / 2.0;
         final double xOffsetS = w / 2.0 - 1;
@@ -643,11 +656,11 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     public Shape createScrollCap(int x, int y, int w, int h) {
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x, y);
         path.lineTo(x, y + h);
         path.lineTo(x + w, y + h);
-        addScrollGapPath(x, y, w, h, true);
+        addScrollGapPath(path, x, y, w, h, true);
         path.closePath();
 
         return path;
@@ -666,11 +679,11 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     public Shape createScrollButtonApart(int x, int y, int w, int h) {
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x, y);
         path.lineTo(x, y + h);
         path.lineTo(x + w, y + h);
-        addScrollGapPath(x, y, w, h, true);
+        addScrollGapPath(path, x, y, w, h, true);
         path.closePath();
 
         return path;
@@ -688,11 +701,11 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     public Shape createScrollButtonTogetherDecrease(int x, int y, int w, int h) {
-        path.reset();
+        Path2D path = resetPath();
         path.moveTo(x + w, y);
         path.lineTo(x + w, y + h);
         path.lineTo(x, y + h);
-        addScrollGapPath(x, y, w, h, false);
+        addScrollGapPath(path, x, y, w, h, false);
         path.closePath();
 
         return path;
@@ -718,6 +731,7 @@ public class ShapeGenerator {
      * the gap in a scroll bar button or cap into which the scroll bar thumb
      * will fit.
      *
+     * @param path     the path to add to.
      * @param x        the X coordinate of the upper-left corner of the button
      *                 or cap
      * @param y        the Y coordinate of the upper-left corner of the button
@@ -727,7 +741,7 @@ public class ShapeGenerator {
      * @param isAtLeft {@code true} if the gap is at the left end of the button,
      *                 {@code false} if it is at the right.
      */
-    private void addScrollGapPath(int x, int y, int w, int h, boolean isAtLeft) {
+    private void addScrollGapPath(Path2D path, int x, int y, int w, int h, boolean isAtLeft) {
         final double hHalf    = h / 2.0;
         final double wFull    = isAtLeft ? w : 0;
         final double wHalfOff = isAtLeft ? w - hHalf : hHalf;
@@ -736,6 +750,19 @@ public class ShapeGenerator {
         path.quadTo(x + wHalfOff, y, x + wFull, y);
     }
 
+    /**
+     * Returns this thread's path for generic shapes, emptied.
+     *
+     * @return the path.
+     */
+    private Path2D resetPath() {
+        Path2D path = paths.get();
+
+        path.reset();
+
+        return path;
+    }
+
     /**
      * Return a path for an ellipse.
      *
@@ -747,6 +774,8 @@ public class ShapeGenerator {
      * @return a path representing the shape.
      */
     private Shape createEllipseInternal(int x, int y, int w, int h) {
+        Ellipse2D ellipse = ellipses.get();
+
         ellipse.setFrame(x, y, w, h);
 
         return ellipse;
@@ -786,7 +815,7 @@ public class ShapeGenerator {
         final int bottom = y + h;
 
         // Start the path.
-        path.reset();
+        Path2D path = resetPath();
 
         // Move to top left and draw rounded corner if requested.
         switch (topLeft) {
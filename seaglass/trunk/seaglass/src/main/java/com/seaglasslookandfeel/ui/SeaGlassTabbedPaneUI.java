@@ -33,12 +33,17 @@ import java.awt.Rectangle;
 import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.swing.ButtonModel;
 import javax.swing.Icon;
@@ -92,6 +97,41 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
 
     private boolean selectedTabIsPressed = false;
 
+    // The maximum number of plain text title widths to remember.
+    private static final int MAX_TITLE_WIDTHS = 1024;
+
+    // The widths of plain text titles in titleWidthFont, so that titles are
+    // only measured when they change.
+    private Map<String, Integer> titleWidths = new HashMap<String, Integer>();
+    private Font                 titleWidthFont;
+
+    // The start of each tab in a single run of all tabs, with the end of the
+    // run after the last tab, and the longest tab before each start.
+    private int[] runPositions  = new int[1];
+    private int[] runMaxLengths = new int[1];
+
+    // The run holds the length of each tab, measured in tabLengthFont, as
+    // the difference of its start and end. Tabs from firstChangedTab on must
+    // be measured again. The icon and tab component length of each tab are
+    // kept too, since changing the icon or enabling a tab only revalidates
+    // the tab pane.
+    private Icon[] tabIcons            = new Icon[0];
+    private int[]  tabComponentLengths = new int[0];
+    private int    tabLengthCount;
+    private Font   tabLengthFont;
+    private int    firstChangedTab;
+
+    // Invalidates tab lengths when tabs are added.
+    private ContainerListener tabContainerListener;
+
+    // The hidden tab rectangles, which are left alone while the same tabs
+    // stay hidden.
+    private Rectangle[] hiddenRects;
+    private int         hiddenTabCount;
+    private int         hiddenX;
+    private int         laidOutLeadingTabIndex;
+    private int         laidOutTrailingTabIndex = -1;
+
     /**
      * Actions to be performed when tab close button is pressed and when tab is
      * actually closed.
@@ -283,6 +323,10 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
         this.tabStyle = SeaGlassLookAndFeel.updateStyle(tabContext, this);
         tabInsets     = tabStyle.getInsets(tabContext, null);
 
+        titleWidths.clear();
+        invalidateTabLengths(0);
+        hiddenRects = null;
+
         if (tabCloseContext != null) {
             tabCloseContext.dispose();
         }
@@ -315,6 +359,22 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
         tabPane.addMouseMotionListener((MouseAdapter) mouseListener);
         tabPane.addPropertyChangeListener(this);
 
+        tabContainerListener = new ContainerListener() {
+                public void componentAdded(ContainerEvent e) {
+                    int index = tabPane.indexOfComponent(e.getChild());
+
+                    if (index >= 0) {
+                        invalidateTabLengths(index);
+                    }
+                }
+
+                public void componentRemoved(ContainerEvent e) {
+                    // Removed tabs are reported by the "__index_to_remove__"
+                    // property, which also covers tabs with no component.
+                }
+            };
+        tabPane.addContainerListener(tabContainerListener);
+
         scrollBackwardButton.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     scrollBackward();
@@ -367,6 +427,12 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
         }
 
         tabPane.removePropertyChangeListener(this);
+
+        if (tabContainerListener != null) {
+            tabPane.removeContainerListener(tabContainerListener);
+            tabContainerListener = null;
+        }
+
         super.uninstallListeners();
     }
 
@@ -506,9 +572,24 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
             updateStyle(tabPane);
         } else if (e.getPropertyName() == "tabPlacement") {
             updateStyle(tabPane);
+        } else if (e.getPropertyName() == "indexForTitle" || e.getPropertyName() == "indexForTabComponent"
+                || e.getPropertyName() == "indexForNullComponent" || e.getPropertyName() == "__index_to_remove__") {
+            invalidateTabLengths(e.getNewValue() instanceof Integer ? (Integer) e.getNewValue() : 0);
+        } else if (e.getPropertyName() == "componentOrientation") {
+            invalidateTabLengths(0);
         }
     }
 
+    /**
+     * Mark the lengths of the tabs from an index on as changed, so that they
+     * are measured again on the next layout.
+     *
+     * @param index the first tab which changed.
+     */
+    private void invalidateTabLengths(int index) {
+        firstChangedTab = Math.min(firstChangedTab, Math.max(index, 0));
+    }
+
     /**
      * Create the mouse listener.
      *
@@ -995,7 +1076,7 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
         if (tabComponent != null) {
             width += tabComponent.getPreferredSize().width;
             if (tabIndex < rects.length && tabCloseButtonPlacement != CENTER) {
-                width += getCloseButtonBounds(tabIndex).width + textIconGap;
+                width += closeButtonSize + textIconGap;
             }
         } else {
             if (icon != null) {
@@ -1004,7 +1085,7 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
 
             // Hack to prevent array index out of bounds before the size has been set and the rectangles created.
             if (tabIndex < rects.length && tabCloseButtonPlacement != CENTER) {
-                width += getCloseButtonBounds(tabIndex).width + textIconGap;
+                width += closeButtonSize + textIconGap;
             }
 
             View v = getTextViewForTab(tabIndex);
@@ -1014,11 +1095,40 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
                 width += (int) v.getPreferredSpan(View.X_AXIS);
             } else {
                 // plain text
-                String title = tabPane.getTitleAt(tabIndex);
+                width += getTitleWidth(tabPane.getTitleAt(tabIndex), metrics);
+            }
+        }
+
+        return width;
+    }
+
+    /**
+     * Get the width of a plain text tab title. Widths are remembered for the
+     * font, so each title is only measured once.
+     *
+     * @param  title   the title.
+     * @param  metrics the metrics for the tab font.
+     *
+     * @return the width of the title.
+     */
+    private int getTitleWidth(String title, FontMetrics metrics) {
+        Font font = metrics.getFont();
+
+        if (font != titleWidthFont && (font == null || !font.equals(titleWidthFont))) {
+            titleWidths.clear();
+            titleWidthFont = font;
+        }
+
+        Integer width = titleWidths.get(title);
 
-                width += tabContext.getStyle().getGraphicsUtils(tabContext).computeStringWidth(tabContext, metrics.getFont(), metrics,
-                                                                                               title);
+        if (width == null) {
+            width = tabContext.getStyle().getGraphicsUtils(tabContext).computeStringWidth(tabContext, font, metrics, title);
+
+            if (titleWidths.size() >= MAX_TITLE_WIDTHS) {
+                titleWidths.clear();
             }
+
+            titleWidths.put(title, width);
         }
 
         return width;
@@ -1120,9 +1230,10 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
      */
     protected boolean isOverCloseButton(int x, int y) {
         if (tabCloseButtonPlacement != CENTER) {
-            int tabCount = tabPane.getTabCount();
+            // Only the tabs between the scroll buttons are showing.
+            int last = Math.min(Math.min(trailingTabIndex, tabPane.getTabCount() - 1), rects.length - 1);
 
-            for (int i = 0; i < tabCount; i++) {
+            for (int i = Math.max(leadingTabIndex, 0); i <= last; i++) {
                 if (getCloseButtonBounds(i).contains(x, y)) {
                     closeButtonHoverIndex = i;
                     return true;
@@ -1501,8 +1612,7 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
 
             determineVisibleTabIndices(tabCount, selectedIndex, tabAreaLength, buttonLength);
             resetTabPositionsToLeadingTabIndex(tabCount);
-            int totalLength = orientation.getPosition(rects[trailingTabIndex].x + rects[trailingTabIndex].width,
-                                                      rects[trailingTabIndex].y + rects[trailingTabIndex].height);
+            int totalLength = runPositions[trailingTabIndex + 1] - runPositions[leadingTabIndex];
 
             if (leadingTabIndex > 0 || trailingTabIndex < tabCount - 1) {
                 resizeTabs(tabCount, totalLength, buttonLength, tabAreaLength);
@@ -1518,9 +1628,45 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
 
             // If component orientation right to left and tab placement is on the top or the bottom,
             // flip x positions and adjust by widths.
+            int hiddenX = -1;
+
             if (!tabPane.getComponentOrientation().isLeftToRight() && orientation == ControlOrientation.HORIZONTAL) {
                 flipRightToLeft(tabCount, tabPane.getSize());
+                hiddenX = tabPane.getWidth() + 1;
             }
+
+            hideTabRects(tabCount, hiddenX);
+        }
+
+        /**
+         * Give the tabs outside the leading and trailing tab indices empty
+         * bounds. Tabs that were already hidden by the last layout are left
+         * alone, so this only touches the tabs that have just been scrolled
+         * out of view.
+         *
+         * @param tabCount the number of tabs.
+         * @param hiddenX  the x coordinate of a hidden tab.
+         */
+        private void hideTabRects(int tabCount, int hiddenX) {
+            int first = 0;
+            int last  = tabCount - 1;
+
+            if (hiddenRects == rects && hiddenTabCount == tabCount && SeaGlassTabbedPaneUI.this.hiddenX == hiddenX) {
+                first = laidOutLeadingTabIndex;
+                last  = Math.min(laidOutTrailingTabIndex, tabCount - 1);
+            }
+
+            for (int i = first; i <= last; i++) {
+                if (i < leadingTabIndex || i > trailingTabIndex) {
+                    rects[i].setBounds(hiddenX, -1, 0, 0);
+                }
+            }
+
+            hiddenRects                       = rects;
+            hiddenTabCount                    = tabCount;
+            SeaGlassTabbedPaneUI.this.hiddenX = hiddenX;
+            laidOutLeadingTabIndex            = leadingTabIndex;
+            laidOutTrailingTabIndex           = trailingTabIndex;
         }
 
         /**
@@ -1575,9 +1721,8 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
          */
         private void determineVisibleTabIndices(int tabCount, int selectedIndex, int tabAreaLength, int buttonLength) {
             int desiredMaximumLength = calcDesiredMaximumLength(tabCount);
-            int leadingTabOffset     = orientation.getPosition(rects[leadingTabIndex]);
-            int selectedTabEndOffset = orientation.getPosition(rects[selectedIndex].x + rects[selectedIndex].width,
-                                                               rects[selectedIndex].y + rects[selectedIndex].height);
+            int leadingTabOffset     = runPositions[leadingTabIndex];
+            int selectedTabEndOffset = runPositions[selectedIndex + 1];
 
             if (desiredMaximumLength <= tabAreaLength) {
                 // Fits with no scroll buttons.
@@ -1589,38 +1734,42 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
             } else if ((leadingTabIndex == 0 && selectedTabEndOffset - leadingTabOffset + buttonLength <= tabAreaLength)
                     || (selectedTabEndOffset - leadingTabOffset + 2 * buttonLength <= tabAreaLength)) {
                 // Selected index fits with current leading tab index and one or two scroll buttons. Leave leadingTabIndex alone.
-                trailingTabIndex = -1;
-
-                for (int i = tabCount - 1; i > selectedIndex; i--) {
-                    int end = orientation.getPosition(rects[i].x + rects[i].width, rects[i].y + rects[i].height);
-
-                    if (end - leadingTabOffset + 2 * buttonLength <= tabAreaLength) {
-                        trailingTabIndex = i;
-                        break;
+                // Find the last tab that fits after it. The tab ends only increase, so search for it.
+                int maxEnd = tabAreaLength - 2 * buttonLength + leadingTabOffset;
+                int low    = selectedIndex;
+                int high   = tabCount - 1;
+
+                while (low < high) {
+                    int mid = (low + high + 1) >>> 1;
+
+                    if (runPositions[mid + 1] <= maxEnd) {
+                        low = mid;
+                    } else {
+                        high = mid - 1;
                     }
                 }
 
-                if (trailingTabIndex == -1) {
-                    trailingTabIndex = selectedIndex;
-                }
+                trailingTabIndex = low;
             } else {
                 // Selected index does not fit with current leading index and two scroll buttons.
-                // Make selected index the trailing index and find the leading index that will fit.
-                trailingTabIndex = selectedIndex;
-                leadingTabIndex  = -1;
-
-                for (int i = 0; i < selectedIndex; i++) {
-                    int start = orientation.getPosition(rects[i]);
-
-                    if (selectedTabEndOffset - start + 2 * buttonLength <= tabAreaLength) {
-                        leadingTabIndex = i;
-                        break;
+                // Make selected index the trailing index and find the first leading index that will fit.
+                // The tab starts only increase, so search for it.
+                int minStart = selectedTabEndOffset + 2 * buttonLength - tabAreaLength;
+                int low      = 0;
+                int high     = selectedIndex;
+
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+
+                    if (runPositions[mid] >= minStart) {
+                        high = mid;
+                    } else {
+                        low = mid + 1;
                     }
                 }
 
-                if (leadingTabIndex == -1) {
-                    leadingTabIndex = selectedIndex;
-                }
+                trailingTabIndex = selectedIndex;
+                leadingTabIndex  = low;
             }
 
             tabRuns[0] = leadingTabIndex;
@@ -1628,8 +1777,12 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
 
         /**
          * Run through tabs and lay them all out in a single run, assigning
-         * maxTabWidth and maxTabHeight. The offset and thickness are set to
-         * zero in this method. They will be assigned good values later.
+         * maxTabWidth and maxTabHeight. Only the start of each tab is
+         * recorded, in runPositions. The tab rectangles are set later for the
+         * tabs which are showing.
+         *
+         * <p>Tab lengths are kept between layouts, and the run is only
+         * rebuilt from the first tab which changed.</p>
          *
          * @param  tabCount the number of tabs.
          *
@@ -1637,28 +1790,29 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
          *         maximum height.
          */
         private int calcDesiredMaximumLength(int tabCount) {
-            FontMetrics metrics       = getFontMetrics();
-            int         fontHeight    = metrics.getHeight();
-            Insets      tabAreaInsets = getTabAreaInsets(fontHeight);
-            Point       corner        = new Point(tabAreaRect.x + tabAreaInsets.left,
-                                                  tabAreaRect.y + tabAreaInsets.top);
-            int         offset        = orientation.getOrthogonalOffset(corner);
-            int         thickness     = (orientation == ControlOrientation.HORIZONTAL) ? maxTabWidth : maxTabHeight;
-            int         position      = 0;
-            int         maxTabLength  = 0;
-
-            // Run through tabs and lay them out in a single long run.
-            for (int i = 0; i < tabCount; i++) {
+            FontMetrics metrics      = getFontMetrics();
+            int         fontHeight   = metrics.getHeight();
+            int         first        = findFirstChangedTab(tabCount, metrics.getFont());
+            int         position     = runPositions[first];
+            int         maxTabLength = runMaxLengths[first];
+
+            // Run through the changed tabs and lay them out in a single long run.
+            for (int i = first; i < tabCount; i++) {
                 int length = (orientation == ControlOrientation.HORIZONTAL) ? calculateTabWidth(TOP, i, metrics)
                                                                             : calculateTabHeight(LEFT, i, fontHeight);
 
-                rects[i].setBounds(orientation.createBounds(position, offset, length, thickness));
+                runPositions[i]  = position;
+                runMaxLengths[i] = maxTabLength;
 
                 // Update the maximum length and the next tab position.
                 maxTabLength =  Math.max(maxTabLength, length);
                 position     += length;
             }
 
+            runPositions[tabCount]  = position;
+            runMaxLengths[tabCount] = maxTabLength;
+            firstChangedTab         = tabCount;
+
             // Update the BasicTabbedPaneUI length variable.
             if (orientation == ControlOrientation.HORIZONTAL) {
                 maxTabWidth = maxTabLength;
@@ -1670,22 +1824,91 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
         }
 
         /**
-         * Reset the positions of the tabs between leadingTabIndex and
-         * trailingTabIndex, inclusive, such that the leadingTabIndex is at
-         * position zero.
+         * Find the first tab whose length must be measured again, and size the
+         * arrays for the tab count. This also catches the icon and tab
+         * component changes which fire no events.
+         *
+         * @param  tabCount the number of tabs.
+         * @param  font     the tab font.
+         *
+         * @return the first tab from which the run must be rebuilt.
+         */
+        private int findFirstChangedTab(int tabCount, Font font) {
+            if (font != tabLengthFont && (font == null || !font.equals(tabLengthFont))) {
+                tabLengthFont   = font;
+                firstChangedTab = 0;
+            }
+
+            if (tabCount != tabLengthCount) {
+                // Tabs are only added and removed with an event, which has
+                // set firstChangedTab, so the lengths before it still hold.
+                firstChangedTab = Math.min(firstChangedTab, Math.min(tabCount, tabLengthCount));
+
+                if (tabCount < tabLengthCount) {
+                    Arrays.fill(tabIcons, tabCount, tabLengthCount, null);
+                }
+
+                tabLengthCount = tabCount;
+            }
+
+            if (tabIcons.length < tabCount) {
+                int length = Math.max(tabCount, 2 * tabIcons.length);
+
+                tabIcons           = Arrays.copyOf(tabIcons, length);
+                tabComponentLengths = Arrays.copyOf(tabComponentLengths, length);
+                runPositions       = Arrays.copyOf(runPositions, length + 1);
+                runMaxLengths      = Arrays.copyOf(runMaxLengths, length + 1);
+            }
+
+            firstChangedTab = Math.min(firstChangedTab, tabCount);
+
+            for (int i = 0; i < firstChangedTab; i++) {
+                if (tabIcons[i] != getIconForTab(i) || tabComponentLengths[i] != getTabComponentLength(i)) {
+                    firstChangedTab = i;
+                }
+            }
+
+            for (int i = firstChangedTab; i < tabCount; i++) {
+                tabIcons[i]            = getIconForTab(i);
+                tabComponentLengths[i] = getTabComponentLength(i);
+            }
+
+            return firstChangedTab;
+        }
+
+        /**
+         * Get the preferred length of a tab component along the run.
+         *
+         * @param  tabIndex the tab.
+         *
+         * @return the preferred length, or -1 if the tab has no component.
+         */
+        private int getTabComponentLength(int tabIndex) {
+            Component tabComponent = tabPane.getTabComponentAt(tabIndex);
+
+            if (tabComponent == null) {
+                return -1;
+            }
+
+            Dimension size = tabComponent.getPreferredSize();
+
+            return (orientation == ControlOrientation.HORIZONTAL) ? size.width : size.height;
+        }
+
+        /**
+         * Set the positions and lengths of the tabs between leadingTabIndex
+         * and trailingTabIndex, inclusive, from the single run, such that the
+         * leadingTabIndex is at position zero. Their offsets and thicknesses
+         * are set when they are centered or resized.
          *
          * @param tabCount the number of tabs.
          */
         private void resetTabPositionsToLeadingTabIndex(int tabCount) {
-            // Rebalance the layout such that the leading tab is at position 0.
-            int leadingTabPosition = orientation.getPosition(rects[leadingTabIndex]);
+            int leadingTabPosition = runPositions[leadingTabIndex];
 
-            for (int i = 0; i < tabCount; i++) {
-                if (i < leadingTabIndex || i > trailingTabIndex) {
-                    rects[i].setBounds(-1, -1, 0, 0);
-                } else {
-                    orientation.updateBoundsPosition(rects[i], orientation.getPosition(rects[i]) - leadingTabPosition);
-                }
+            for (int i = leadingTabIndex; i <= trailingTabIndex; i++) {
+                orientation.updateBoundsPosition(rects[i], runPositions[i] - leadingTabPosition);
+                orientation.updateBoundsLength(rects[i], runPositions[i + 1] - runPositions[i]);
             }
         }
 
@@ -1777,7 +2000,8 @@ public class SeaGlassTabbedPaneUI extends BasicTabbedPaneUI implements SeaglassU
         private void flipRightToLeft(int tabCount, Dimension size) {
             int rightMargin = size.width;
 
-            for (int i = 0; i < tabCount; i++) {
+            // The hidden tabs are flipped by hideTabRects.
+            for (int i = leadingTabIndex; i <= trailingTabIndex; i++) {
                 rects[i].x = rightMargin - rects[i].x - rects[i].width;
             }
 
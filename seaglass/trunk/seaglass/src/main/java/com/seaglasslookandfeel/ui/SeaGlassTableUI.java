@@ -26,6 +26,8 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.text.DateFormat;
@@ -44,6 +46,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JViewport;
 import javax.swing.LookAndFeel;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.border.AbstractBorder;
 import javax.swing.border.Border;
@@ -83,6 +86,13 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
 
     private static final CellRendererPane CELL_RENDER_PANE = new CellRendererPane();
 
+    // Client property holding the table's ViewportRepainter.
+    private static final String VIEWPORT_REPAINTER_KEY = "SeaGlassTableUI.viewportRepainter";
+
+    // How long to gather damage while a column is being resized, about one
+    // frame.
+    private static final int RESIZE_REPAINT_DELAY = 16;
+
     //
     // Instance Variables
     //
@@ -98,6 +108,19 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
     private Color             selectionInactiveBottomBorderColor;
     private Color             transparentColor;
 
+    // The renderer borders, created once per style update rather than for
+    // every cell.
+    private Border rowBorder;
+    private Border selectedRowActiveBorder;
+    private Border selectedRowInactiveBorder;
+
+    // The table colors with any UIResource stripped, so that renderers don't
+    // replace them with their own defaults.
+    private final UnwrappedColor unwrappedForeground          = new UnwrappedColor();
+    private final UnwrappedColor unwrappedBackground          = new UnwrappedColor();
+    private final UnwrappedColor unwrappedSelectionForeground = new UnwrappedColor();
+    private final UnwrappedColor unwrappedSelectionBackground = new UnwrappedColor();
+
     // TableCellRenderer installed on the JTable at the time we're installed,
     // cached so that we can reinstall them at uninstallUI time.
     private TableCellRenderer dateRenderer;
@@ -214,6 +237,15 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
             selectionInactiveBottomBorderColor = UIManager.getColor("seaGlassTableSelectionInactiveBottom");
             transparentColor                   = UIManager.getColor("seaGlassTransparent");
 
+            rowBorder                 = BorderFactory.createEmptyBorder(0, 5, 0, 5);
+            selectedRowActiveBorder   = createSelectedRowBorder(selectionActiveBottomBorderColor);
+            selectedRowInactiveBorder = createSelectedRowBorder(selectionInactiveBottomBorderColor);
+
+            unwrappedForeground.clear();
+            unwrappedBackground.clear();
+            unwrappedSelectionForeground.clear();
+            unwrappedSelectionBackground.clear();
+
             if (style != oldStyle) {
                 table.remove(rendererPane);
                 rendererPane = createCustomCellRendererPane();
@@ -330,6 +362,7 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
      */
     protected void uninstallListeners() {
         table.removePropertyChangeListener(this);
+        removeViewPortListeners(table);
         super.uninstallListeners();
     }
 
@@ -464,10 +497,7 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
         // Paint the grid.
         if (!(table.getParent() instanceof JViewport)
                 || (table.getParent() != null && !(table.getParent().getParent() instanceof JScrollPane))) {
-            // FIXME We need to not repaint the entire table any time something
-            // changes.
-            // paintGrid(context, g, rMin, rMax, cMin, cMax);
-            paintStripesAndGrid(context, g, table, table.getWidth(), table.getHeight(), 0);
+            paintStripesAndGrid(context, g, table, table.getWidth(), table.getHeight(), 0, 0);
         }
 
         // Paint the cells.
@@ -481,52 +511,64 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
      *      java.awt.Graphics, javax.swing.JViewport)
      */
     public void paintViewport(SeaGlassContext context, Graphics g, JViewport c) {
-        paintStripesAndGrid(context, g, c, c.getWidth(), c.getHeight(), table.getLocation().y);
+        paintStripesAndGrid(context, g, c, c.getWidth(), c.getHeight(), table.getLocation().x, table.getLocation().y);
     }
 
     /**
-     * Paint the stripes and grid.
+     * Paint the stripes and grid. Only the rows and columns that intersect the
+     * clip are painted.
      *
      * @param context the Synth context.
      * @param g       the Graphics context.
      * @param c       the component.
      * @param width   the width of the table.
      * @param height  the height of the table.
+     * @param left    the x position of the table (for viewports).
      * @param top     the top row to paint (for viewports).
      */
-    public void paintStripesAndGrid(SeaGlassContext context, Graphics g, JComponent c, int width, int height, int top) {
-        int rh  = table.getRowHeight();
-        int n   = table.getRowCount();
-        int row = Math.abs(top / rh);
-        // if (true) return;
+    public void paintStripesAndGrid(SeaGlassContext context, Graphics g, JComponent c, int width, int height, int left, int top) {
+        int       rh   = table.getRowHeight();
+        int       row  = Math.abs(top / rh);
+        Rectangle clip = g.getClipBounds();
 
-        // TableCellRenderer renderer =
-        // table.getDefaultRenderer(java.lang.Object.class);
+        int clipLeft   = 0;
+        int clipTop    = 0;
+        int clipRight  = width;
+        int clipBottom = height;
+
+        if (clip != null) {
+            clipLeft   = Math.max(clipLeft, clip.x);
+            clipTop    = Math.max(clipTop, clip.y);
+            clipRight  = Math.min(clipRight, clip.x + clip.width);
+            clipBottom = Math.min(clipBottom, clip.y + clip.height);
+        }
+
+        if (clipLeft >= clipRight || clipTop >= clipBottom) {
+            return;
+        }
+
+        // The rows are laid out from the top, so the first row touching the
+        // clip can be computed rather than searched for.
+        int firstRow = row + Math.max(0, clipTop - (top + row * rh)) / rh;
 
         // Paint the background, including stripes if requested.
         if (alternateColor != null) {
-            // Fill the viewport with background color.
-        	// Rossi: Ugly broken hack to make the first column white instead of blue.
-        	// To see how the new blue table headers look like.
-        	// This is should be done by modifying the "for loop" instead.
+            // Fill the clip with the alternate color.
             g.setColor(alternateColor);
-            g.fillRect(0, 0, width, height);
+            g.fillRect(clipLeft, clipTop, clipRight - clipLeft, clipBottom - clipTop);
 
-            // Now check if we need to paint some stripes
+            // Now paint the even rows with the background color.
             g.setColor(table.getBackground());
 
-            // Paint table rows to fill the viewport.
-            for (int y = top + row * rh, ymax = height; y < ymax; y += rh) {
-                if (row % 2 == 0) {
-                    g.fillRect(0, y, width, rh);
-                }
+            int stripe = firstRow + (firstRow & 1);
 
-                row++;
+            for (int y = top + stripe * rh; y < clipBottom; y += 2 * rh) {
+                g.fillRect(clipLeft, y, clipRight - clipLeft, rh);
             }
         } else {
-            // Fill the viewport with the background color of the table
+            // Fill the clip with the background color of the table
             g.setColor(table.getBackground());
-            g.fillRect(0, 0, c.getWidth(), c.getHeight());
+            g.fillRect(clipLeft, clipTop, clipRight - clipLeft, clipBottom - clipTop);
         }
 
         SynthGraphicsUtils synthG = context.getStyle().getGraphicsUtils(context);
@@ -534,31 +576,27 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
         // Paint the horizontal grid lines
         if (table.getShowHorizontalLines()) {
             g.setColor(table.getGridColor());
-            row = Math.abs(top / rh);
-            int y = top + row * rh + rh - 1;
 
-            while (y < height) {
+            // Each line is on the last pixel row of its table row.
+            for (int y = top + firstRow * rh + rh - 1; y < clipBottom; y += rh) {
                 synthG.drawLine(context, "Table.grid", g, 0, y, width, y);
-                y += rh;
             }
         }
 
-        // Paint the vertical grid lines
+        // Paint the vertical grid lines, down the height of the clip.
         if (table.getShowVerticalLines()) {
             g.setColor(table.getGridColor());
             TableColumnModel cm = table.getColumnModel();
 
-            n = cm.getColumnCount();
-            int y = top + row * rh;
+            int n = cm.getColumnCount();
+            int x = left - 1;
 
-            ;
-            int x = -1;
+            for (int i = 0; i < n && x < clipRight; i++) {
+                x += cm.getColumn(i).getWidth();
 
-            for (int i = 0; i < n; i++) {
-                TableColumn col = cm.getColumn(i);
-
-                x += col.getWidth();
-                synthG.drawLine(context, "Table.grid", g, x, y, x, height);
+                if (x >= clipLeft && x < clipRight) {
+                    synthG.drawLine(context, "Table.grid", g, x, clipTop, x, clipBottom);
+                }
             }
         }
     }
@@ -827,13 +865,15 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
 
         if (table.getComponentOrientation().isLeftToRight()) {
             for (int row = rMin; row <= rMax; row++) {
+                boolean rowSelected = table.isRowSelected(row);
+
                 cellRect = table.getCellRect(row, cMin, false);
                 for (int column = cMin; column <= cMax; column++) {
                     aColumn        = cm.getColumn(column);
                     columnWidth    = aColumn.getWidth();
                     cellRect.width = columnWidth - columnMargin;
                     if (aColumn != draggedColumn) {
-                        paintCell(context, g, cellRect, row, column);
+                        paintCell(context, g, cellRect, row, column, rowSelected);
                     }
 
                     cellRect.x += columnWidth;
@@ -841,12 +881,14 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
             }
         } else {
             for (int row = rMin; row <= rMax; row++) {
+                boolean rowSelected = table.isRowSelected(row);
+
                 cellRect = table.getCellRect(row, cMin, false);
                 aColumn  = cm.getColumn(cMin);
                 if (aColumn != draggedColumn) {
                     columnWidth    = aColumn.getWidth();
                     cellRect.width = columnWidth - columnMargin;
-                    paintCell(context, g, cellRect, row, cMin);
+                    paintCell(context, g, cellRect, row, cMin, rowSelected);
                 }
 
                 for (int column = cMin + 1; column <= cMax; column++) {
@@ -855,7 +897,7 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
                     cellRect.width =  columnWidth - columnMargin;
                     cellRect.x     -= columnWidth;
                     if (aColumn != draggedColumn) {
-                        paintCell(context, g, cellRect, row, column);
+                        paintCell(context, g, cellRect, row, column, rowSelected);
                     }
                 }
             }
@@ -919,7 +961,7 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
             Rectangle r = table.getCellRect(row, draggedColumnIndex, false);
 
             r.x += distance;
-            paintCell(context, g, r, row, draggedColumnIndex);
+            paintCell(context, g, r, row, draggedColumnIndex, table.isRowSelected(row));
 
             // Paint the (lower) horizontal grid line if necessary.
             if (table.getShowHorizontalLines()) {
@@ -940,13 +982,14 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
     /**
      * DOCUMENT ME!
      *
-     * @param context  DOCUMENT ME!
-     * @param g        DOCUMENT ME!
-     * @param cellRect DOCUMENT ME!
-     * @param row      DOCUMENT ME!
-     * @param column   DOCUMENT ME!
+     * @param context     DOCUMENT ME!
+     * @param g           DOCUMENT ME!
+     * @param cellRect    DOCUMENT ME!
+     * @param row         DOCUMENT ME!
+     * @param column      DOCUMENT ME!
+     * @param rowSelected whether the row is selected.
      */
-    private void paintCell(SeaGlassContext context, Graphics g, Rectangle cellRect, int row, int column) {
+    private void paintCell(SeaGlassContext context, Graphics g, Rectangle cellRect, int row, int column, boolean rowSelected) {
         if (table.isEditing() && table.getEditingRow() == row && table.getEditingColumn() == column) {
             Component component = table.getEditorComponent();
 
@@ -956,7 +999,11 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
             TableCellRenderer renderer  = table.getCellRenderer(row, column);
             Component         component = table.prepareRenderer(renderer, row, column);
 
-            rendererPane.paintComponent(g, component, table, cellRect.x, cellRect.y, cellRect.width, cellRect.height, true);
+            if (rendererPane instanceof SeaGlassCellRendererPane) {
+                ((SeaGlassCellRendererPane) rendererPane).paintCell(g, component, cellRect, rowSelected);
+            } else {
+                rendererPane.paintComponent(g, component, table, cellRect.x, cellRect.y, cellRect.width, cellRect.height, true);
+            }
         }
     }
 
@@ -975,7 +1022,7 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
      * @return DOCUMENT ME!
      */
     private Border getRowBorder() {
-        return BorderFactory.createEmptyBorder(0, 5, 0, 5);
+        return rowBorder;
     }
 
     /**
@@ -984,17 +1031,19 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
      * @return DOCUMENT ME!
      */
     private Border getSelectedRowBorder() {
-        return BorderFactory.createCompoundBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, getSelectedRowBottomHighlight()),
-                                                  BorderFactory.createEmptyBorder(1, 5, 0, 5));
+        return WindowUtils.isParentWindowFocused(table) ? selectedRowActiveBorder : selectedRowInactiveBorder;
     }
 
     /**
-     * DOCUMENT ME!
+     * Create the border for selected rows.
      *
-     * @return DOCUMENT ME!
+     * @param  bottomHighlight the color of the line under the row.
+     *
+     * @return the border.
      */
-    private Color getSelectedRowBottomHighlight() {
-        return WindowUtils.isParentWindowFocused(table) ? selectionActiveBottomBorderColor : selectionInactiveBottomBorderColor;
+    private static Border createSelectedRowBorder(Color bottomHighlight) {
+        return BorderFactory.createCompoundBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, bottomHighlight),
+                                                  BorderFactory.createEmptyBorder(1, 5, 0, 5));
     }
 
     /**
@@ -1041,75 +1090,313 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
      * {@link PropertyChangeListener} will be installed to handle "ancestor"
      * changes.
      *
+     * <p>A single listener is installed per table, however often this is
+     * called. Column changes repaint only the part of the viewport they
+     * damage.</p>
+     *
      * @param table the table to paint row stripes for.
      */
     public static void setViewPortListeners(JTable table) {
-        table.addPropertyChangeListener("ancestor", createAncestorPropertyChangeListener(table));
-        // Install a listener to cause the whole table to repaint when a column
-        // is resized. We do this because the extended grid lines may need to be
-        // repainted. This could be cleaned up, but for now, it works fine.
-        for (int i = 0; i < table.getColumnModel().getColumnCount(); i++) {
-            table.getColumnModel().getColumn(i).addPropertyChangeListener(createAncestorPropertyChangeListener(table));
-            table.getColumnModel().addColumnModelListener(createTableColumnModelListener(table));
+        if (table.getClientProperty(VIEWPORT_REPAINTER_KEY) instanceof ViewportRepainter) {
+            return;
         }
+
+        ViewportRepainter repainter = new ViewportRepainter(table);
+
+        table.putClientProperty(VIEWPORT_REPAINTER_KEY, repainter);
+        repainter.install();
     }
 
     /**
-     * DOCUMENT ME!
-     *
-     * @param  table DOCUMENT ME!
+     * Removes the listeners installed by {@link #setViewPortListeners(JTable)}.
      *
-     * @return DOCUMENT ME!
+     * @param table the table.
      */
-    private static TableColumnModelListener createTableColumnModelListener(final JTable table) {
-        return new TableColumnModelListener() {
-            public void columnAdded(TableColumnModelEvent e) {
-                if (table.getParent() instanceof JViewport && table.getParent().getParent() instanceof JScrollPane) {
-                    table.getParent().repaint();
-                }
+    private static void removeViewPortListeners(JTable table) {
+        Object repainter = table.getClientProperty(VIEWPORT_REPAINTER_KEY);
+
+        if (repainter instanceof ViewportRepainter) {
+            ((ViewportRepainter) repainter).uninstall();
+            table.putClientProperty(VIEWPORT_REPAINTER_KEY, null);
+        }
+    }
+
+    /**
+     * Repaints the part of a table's viewport damaged by column changes. The
+     * viewport paints the stripes and the grid lines extending below the last
+     * row, so when columns move or change size, the grid lines to the right of
+     * the change have to be repainted. The table repaints itself.
+     */
+    private static class ViewportRepainter implements TableColumnModelListener, PropertyChangeListener, ActionListener {
+        private final JTable     table;
+        private TableColumnModel columnModel;
+
+        // Damage gathered while a column is being resized, in table
+        // coordinates, and the timer that repaints it.
+        private Rectangle        pendingDamage;
+        private Timer            timer;
+
+        /**
+         * Creates a new ViewportRepainter object.
+         *
+         * @param table the table.
+         */
+        ViewportRepainter(JTable table) {
+            this.table = table;
+        }
+
+        /**
+         * Start listening to the table and its column model.
+         */
+        void install() {
+            table.addPropertyChangeListener("ancestor", this);
+            table.addPropertyChangeListener("columnModel", this);
+            setColumnModel(table.getColumnModel());
+        }
+
+        /**
+         * Stop listening to the table and its column model.
+         */
+        void uninstall() {
+            table.removePropertyChangeListener("ancestor", this);
+            table.removePropertyChangeListener("columnModel", this);
+            setColumnModel(null);
+
+            if (timer != null) {
+                timer.stop();
             }
 
-            public void columnMarginChanged(ChangeEvent e) {
-                if (table.getParent() instanceof JViewport && table.getParent().getParent() instanceof JScrollPane) {
-                    table.getParent().repaint();
-                }
+            pendingDamage = null;
+        }
+
+        /**
+         * Move the column model listener to a new model.
+         *
+         * @param model the new model, or {@code null}.
+         */
+        private void setColumnModel(TableColumnModel model) {
+            if (columnModel != null) {
+                columnModel.removeColumnModelListener(this);
+            }
+
+            columnModel = model;
+
+            if (columnModel != null) {
+                columnModel.addColumnModelListener(this);
             }
+        }
 
-            public void columnMoved(TableColumnModelEvent e) {
-                if (table.getParent() instanceof JViewport && table.getParent().getParent() instanceof JScrollPane) {
-                    table.getParent().repaint();
+        /**
+         * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
+         */
+        public void propertyChange(PropertyChangeEvent event) {
+            if ("columnModel".equals(event.getPropertyName())) {
+                setColumnModel(table.getColumnModel());
+                repaintFrom(0);
+            } else {
+                JViewport viewport = getViewport();
+
+                if (viewport != null) {
+                    viewport.repaint();
                 }
             }
+        }
+
+        /**
+         * @see javax.swing.event.TableColumnModelListener#columnAdded(javax.swing.event.TableColumnModelEvent)
+         */
+        public void columnAdded(TableColumnModelEvent e) {
+            repaintFrom(e.getToIndex());
+        }
+
+        /**
+         * @see javax.swing.event.TableColumnModelListener#columnRemoved(javax.swing.event.TableColumnModelEvent)
+         */
+        public void columnRemoved(TableColumnModelEvent e) {
+            repaintFrom(e.getFromIndex());
+        }
+
+        /**
+         * @see javax.swing.event.TableColumnModelListener#columnMoved(javax.swing.event.TableColumnModelEvent)
+         */
+        public void columnMoved(TableColumnModelEvent e) {
+            // A column being dragged fires this for every mouse move, but the
+            // columns only change places when the indices differ.
+            if (e.getFromIndex() == e.getToIndex()) {
+                return;
+            }
+
+            int first = Math.min(e.getFromIndex(), e.getToIndex());
+            int last  = Math.max(e.getFromIndex(), e.getToIndex());
 
-            public void columnRemoved(TableColumnModelEvent e) {
-                if (table.getParent() instanceof JViewport && table.getParent().getParent() instanceof JScrollPane) {
-                    table.getParent().repaint();
+            repaintColumns(first, last + 1, false);
+        }
+
+        /**
+         * @see javax.swing.event.TableColumnModelListener#columnMarginChanged(javax.swing.event.ChangeEvent)
+         */
+        public void columnMarginChanged(ChangeEvent e) {
+            JTableHeader header         = table.getTableHeader();
+            TableColumn  resizingColumn = header == null ? null : header.getResizingColumn();
+            int          index          = -1;
+
+            // The columns left of the resized one keep their widths, unless
+            // the table resizes all columns to fit.
+            if (resizingColumn != null && table.getAutoResizeMode() != JTable.AUTO_RESIZE_ALL_COLUMNS) {
+                TableColumnModel cm = table.getColumnModel();
+
+                for (int i = 0; i < cm.getColumnCount() && index < 0; i++) {
+                    if (cm.getColumn(i) == resizingColumn) {
+                        index = i;
+                    }
                 }
             }
 
-            public void columnSelectionChanged(ListSelectionEvent e) {
-                if (table.getParent() instanceof JViewport && table.getParent().getParent() instanceof JScrollPane) {
-                    table.getParent().repaint();
+            if (index < 0) {
+                repaintFrom(0);
+            } else {
+                repaintColumns(index, Integer.MAX_VALUE, true);
+            }
+        }
+
+        /**
+         * The viewport doesn't paint anything that depends on the column
+         * selection, and the table repaints its own cells.
+         *
+         * @see javax.swing.event.TableColumnModelListener#columnSelectionChanged(javax.swing.event.ListSelectionEvent)
+         */
+        public void columnSelectionChanged(ListSelectionEvent e) {
+        }
+
+        /**
+         * Repaint the gathered resize damage.
+         *
+         * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+         */
+        public void actionPerformed(ActionEvent e) {
+            Rectangle damage = pendingDamage;
+
+            pendingDamage = null;
+
+            if (damage != null) {
+                repaint(damage);
+            }
+        }
+
+        /**
+         * Repaint a column and everything to its right.
+         *
+         * @param column the view index of the column.
+         */
+        private void repaintFrom(int column) {
+            repaintColumns(column, Integer.MAX_VALUE, false);
+        }
+
+        /**
+         * Repaint the viewport under a span of columns, including the grid
+         * line to the left of the span.
+         *
+         * @param first    the view index of the first column.
+         * @param end      the view index after the last column, or
+         *                 {@code Integer.MAX_VALUE} to repaint to the right
+         *                 edge of the viewport.
+         * @param coalesce whether to gather the damage and repaint it later.
+         */
+        private void repaintColumns(int first, int end, boolean coalesce) {
+            JViewport viewport = getViewport();
+
+            if (viewport == null) {
+                return;
+            }
+
+            // Far enough right to cover the viewport in both coordinate
+            // systems used by repaint(Rectangle).
+            int left  = 0;
+            int right = Math.max(viewport.getWidth(), viewport.getWidth() - table.getX());
+
+            // The grid is always laid out left to right, so right to left
+            // tables simply repaint the whole width.
+            if (table.getComponentOrientation().isLeftToRight()) {
+                TableColumnModel cm = table.getColumnModel();
+                int              n  = cm.getColumnCount();
+                int              x  = 0;
+
+                for (int i = 0; i < n && i < end; i++) {
+                    if (i == first) {
+                        left = x - 1;
+                    }
+
+                    x += cm.getColumn(i).getWidth();
+                }
+
+                if (first >= n) {
+                    left = x - 1;
+                }
+
+                if (end <= n) {
+                    right = x;
                 }
             }
-        };
-    }
 
-    /**
-     * DOCUMENT ME!
-     *
-     * @param  table DOCUMENT ME!
-     *
-     * @return DOCUMENT ME!
-     */
-    private static PropertyChangeListener createAncestorPropertyChangeListener(final JTable table) {
-        return new PropertyChangeListener() {
-            public void propertyChange(PropertyChangeEvent event) {
-                if (table.getParent() instanceof JViewport && table.getParent().getParent() instanceof JScrollPane) {
-                    table.getParent().repaint();
+            Rectangle damage = new Rectangle(left, 0, right - left, viewport.getHeight());
+
+            if (!coalesce) {
+                repaint(damage);
+            } else if (pendingDamage == null) {
+                pendingDamage = damage;
+
+                if (timer == null) {
+                    timer = new Timer(RESIZE_REPAINT_DELAY, this);
+                    timer.setRepeats(false);
                 }
+
+                timer.restart();
+            } else {
+                pendingDamage = pendingDamage.union(damage);
             }
-        };
+        }
+
+        /**
+         * Repaint the damaged part of the viewport. The damage is given in
+         * table coordinates and repainted both there and at the same
+         * position in the viewport, where the grid below the rows is painted.
+         *
+         * @param damage the damaged area, which may extend beyond the
+         *               viewport.
+         */
+        private void repaint(Rectangle damage) {
+            JViewport viewport = getViewport();
+
+            if (viewport == null) {
+                return;
+            }
+
+            Rectangle bounds = new Rectangle(0, 0, viewport.getWidth(), viewport.getHeight());
+            Rectangle area   = bounds.intersection(damage);
+
+            damage.translate(table.getX(), 0);
+            area = area.union(bounds.intersection(damage));
+
+            if (!area.isEmpty()) {
+                viewport.repaint(area);
+            }
+        }
+
+        /**
+         * Get the viewport whose background this table paints.
+         *
+         * @return the viewport, or {@code null} if the table is not in a
+         *         scroll pane.
+         */
+        private JViewport getViewport() {
+            Container parent = table.getParent();
+
+            if (parent instanceof JViewport && parent.getParent() instanceof JScrollPane) {
+                return (JViewport) parent;
+            }
+
+            return null;
+        }
     }
 
     /**
@@ -1121,57 +1408,138 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
      * @return DOCUMENT ME!
      */
     private CellRendererPane createCustomCellRendererPane() {
-        return new CellRendererPane() {
-            @Override
-            public void paintComponent(Graphics graphics, Component component, Container container, int x, int y, int w, int h,
-                    boolean shouldValidate) {
-                int     rowAtPoint = table.rowAtPoint(new Point(x, y));
-                boolean isSelected = table.isRowSelected(rowAtPoint);
-
-                if (component instanceof JComponent && component instanceof UIResource) {
-                    JComponent jComponent = (JComponent) component;
-
-                    jComponent.setOpaque(true);
-                    jComponent.setBorder(isSelected ? getSelectedRowBorder() : getRowBorder());
-                    jComponent.setBackground(isSelected ? jComponent.getBackground() : transparentColor);
-
-                    if (isSelected) {
-                        jComponent.setForeground(unwrap(table.getSelectionForeground()));
-                        jComponent.setBackground(unwrap(table.getSelectionBackground()));
-                    } else {
-                        jComponent.setForeground(unwrap(table.getForeground()));
-                        jComponent.setBackground(transparentColor);
-                    }
-                }
+        return new SeaGlassCellRendererPane();
+    }
 
-                super.paintComponent(graphics, component, container, x, y, w, h, shouldValidate);
+    /**
+     * The custom {@link CellRendererPane}. Cells painted by the UI delegate
+     * pass their row's selection state down, so the pane doesn't have to look
+     * the row up again, and renderer properties are only written when they
+     * change.
+     */
+    private class SeaGlassCellRendererPane extends CellRendererPane {
+        private static final long serialVersionUID = -2938716372049862917L;
+
+        // Reused to look rows up for components not painted by paintCell.
+        private final Point point = new Point();
+
+        // Whether paintCell supplied the selection state, and what it is.
+        private boolean knownRow;
+        private boolean knownRowSelected;
+
+        /**
+         * Paint a cell renderer for a row whose selection state is known.
+         *
+         * @param g           the Graphics context.
+         * @param component   the renderer component.
+         * @param cellRect    the bounds of the cell.
+         * @param rowSelected whether the row is selected.
+         */
+        void paintCell(Graphics g, Component component, Rectangle cellRect, boolean rowSelected) {
+            knownRow         = true;
+            knownRowSelected = rowSelected;
+
+            try {
+                paintComponent(g, component, table, cellRect.x, cellRect.y, cellRect.width, cellRect.height, true);
+            } finally {
+                knownRow = false;
+            }
+        }
+
+        /**
+         * @see javax.swing.CellRendererPane#paintComponent(java.awt.Graphics,
+         *      java.awt.Component, java.awt.Container, int, int, int, int,
+         *      boolean)
+         */
+        @Override
+        public void paintComponent(Graphics graphics, Component component, Container container, int x, int y, int w, int h,
+                boolean shouldValidate) {
+            boolean isSelected;
+
+            if (knownRow) {
+                isSelected = knownRowSelected;
+            } else {
+                point.setLocation(x, y);
+                isSelected = table.isRowSelected(table.rowAtPoint(point));
             }
 
-            /**
-             * DOCUMENT ME!
-             *
-             * @param  c DOCUMENT ME!
-             *
-             * @return DOCUMENT ME!
-             */
-            private Color unwrap(Color c) {
-                if (c instanceof UIResource) {
-                    return new Color(c.getRGB());
+            if (component instanceof JComponent && component instanceof UIResource) {
+                JComponent jComponent = (JComponent) component;
+
+                jComponent.setOpaque(true);
+
+                Border border = isSelected ? getSelectedRowBorder() : getRowBorder();
+
+                if (jComponent.getBorder() != border) {
+                    jComponent.setBorder(border);
                 }
 
-                return c;
+                Color foreground;
+                Color background;
+
+                if (isSelected) {
+                    foreground = unwrappedSelectionForeground.get(table.getSelectionForeground());
+                    background = unwrappedSelectionBackground.get(table.getSelectionBackground());
+                } else {
+                    foreground = unwrappedForeground.get(table.getForeground());
+                    background = transparentColor;
+                }
+
+                if (jComponent.getForeground() != foreground) {
+                    jComponent.setForeground(foreground);
+                }
+
+                if (jComponent.getBackground() != background) {
+                    jComponent.setBackground(background);
+                }
             }
 
-            /**
-             * @see javax.swing.JComponent#isOpaque()
-             */
-            @SuppressWarnings("unused")
-            public boolean isOpaque(int x, int y) {
-                int rowAtPoint = table.rowAtPoint(new Point(x, y));
+            super.paintComponent(graphics, component, container, x, y, w, h, shouldValidate);
+        }
+
+        /**
+         * @see javax.swing.JComponent#isOpaque()
+         */
+        @SuppressWarnings("unused")
+        public boolean isOpaque(int x, int y) {
+            point.setLocation(x, y);
+            int rowAtPoint = table.rowAtPoint(point);
+
+            return table.isRowSelected(rowAtPoint) ? true : super.isOpaque();
+        }
+    }
+
+    /**
+     * Strips the UIResource from a color, remembering the result until the
+     * color changes.
+     */
+    private static class UnwrappedColor {
+        private Color source;
+        private Color unwrapped;
 
-                return table.isRowSelected(rowAtPoint) ? true : super.isOpaque();
+        /**
+         * Get the color without any UIResource.
+         *
+         * @param  c the color.
+         *
+         * @return a plain color equal to {@code c}.
+         */
+        Color get(Color c) {
+            if (c != source) {
+                source    = c;
+                unwrapped = (c instanceof UIResource) ? new Color(c.getRGB()) : c;
             }
-        };
+
+            return unwrapped;
+        }
+
+        /**
+         * Forget the remembered color.
+         */
+        void clear() {
+            source    = null;
+            unwrapped = null;
+        }
     }
 
     /**
@@ -1198,32 +1566,17 @@ public class SeaGlassTableUI extends BasicTableUI implements SeaglassUI, Propert
             isRowSelected = isSelected;
 
             if (isSelected) {
-                setForeground(unwrap(table.getSelectionForeground()));
-                setBackground(unwrap(table.getSelectionBackground()));
+                setForeground(unwrappedSelectionForeground.get(table.getSelectionForeground()));
+                setBackground(unwrappedSelectionBackground.get(table.getSelectionBackground()));
             } else {
-                setForeground(unwrap(table.getForeground()));
-                setBackground(unwrap(table.getBackground()));
+                setForeground(unwrappedForeground.get(table.getForeground()));
+                setBackground(unwrappedBackground.get(table.getBackground()));
             }
 
             setSelected((value != null && ((Boolean) value).booleanValue()));
             return this;
         }
 
-        /**
-         * DOCUMENT ME!
-         *
-         * @param  c DOCUMENT ME!
-         *
-         * @return DOCUMENT ME!
-         */
-        private Color unwrap(Color c) {
-            if (c instanceof UIResource) {
-                return new Color(c.getRGB());
-            }
-
-            return c;
-        }
-
         /**
          * @see javax.swing.JComponent#isOpaque()
          */
@@ -26,6 +26,7 @@ import java.awt.Insets;
 import java.awt.Rectangle;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Arrays;
 import java.util.Enumeration;
 
 import javax.swing.DefaultCellEditor;
@@ -78,6 +79,23 @@ public class SeaGlassTreeUI extends BasicTreeUI implements PropertyChangeListene
 
     private Icon         expandedIconWrapper = new ExpandedIconWrapper();
 
+    // Flags describing a painted row.
+    private static final int ROW_LEAF              = 1;
+    private static final int ROW_EXPANDED          = 2;
+    private static final int ROW_HAS_BEEN_EXPANDED = 4;
+    private static final int ROW_SELECTED          = 8;
+
+    // The rows in the clip, gathered once per paint and reused between
+    // paints.
+    private TreePath[]   paintPaths      = new TreePath[0];
+    private Rectangle[]  paintBounds     = new Rectangle[0];
+    private int[]        paintFlags      = new int[0];
+    private int[]        paintStates     = new int[0];
+
+    // Whether the vertical leg of the last parent seen at each path depth
+    // has been painted.
+    private boolean[]    legPainted      = new boolean[0];
+
     /**
      * Creates a new UI object for the given component.
      *
@@ -308,102 +326,108 @@ public class SeaGlassTreeUI extends BasicTreeUI implements PropertyChangeListene
 
         updateLeadSelectionRow();
 
-        Rectangle paintBounds = g.getClipBounds();
+        Rectangle clipBounds = g.getClipBounds();
         Insets insets = tree.getInsets();
-        TreePath initialPath = getClosestPathForLocation(tree, 0, paintBounds.y);
+        TreePath initialPath = getClosestPathForLocation(tree, 0, clipBounds.y);
         Enumeration paintingEnumerator = treeState.getVisiblePathsFrom(initialPath);
-        int row = treeState.getRowForPath(initialPath);
-        int endY = paintBounds.y + paintBounds.height;
+        int firstRow = treeState.getRowForPath(initialPath);
+        int endY = clipBounds.y + clipBounds.height;
         TreeModel treeModel = tree.getModel();
         SeaGlassContext cellContext = getContext(tree, Region.TREE_CELL);
 
-        drawingCache.clear();
-
         setHashColor(context.getStyle().getColor(context, ColorType.FOREGROUND));
 
         if (paintingEnumerator != null) {
-            // First pass, draw the rows
-
-            boolean done = false;
-            boolean isExpanded;
-            boolean hasBeenExpanded;
-            boolean isLeaf;
-            Rectangle rowBounds = new Rectangle(0, 0, tree.getWidth(), 0);
-            Rectangle bounds;
-            TreePath path;
-            TreeCellRenderer renderer = tree.getCellRenderer();
-            DefaultTreeCellRenderer dtcr = (renderer instanceof DefaultTreeCellRenderer) ? (DefaultTreeCellRenderer) renderer : null;
+            // Gather the rows in the clip, so the paths are only enumerated
+            // and their bounds only computed once.
+            int count = 0;
+            int maxPathCount = initialPath.getPathCount();
+
+            while (paintingEnumerator.hasMoreElements()) {
+                TreePath path = (TreePath) paintingEnumerator.nextElement();
+                if (path == null) {
+                    break;
+                }
 
-            configureRenderer(cellContext);
-            while (!done && paintingEnumerator.hasMoreElements()) {
-                path = (TreePath) paintingEnumerator.nextElement();
-                if (path != null) {
-                    isLeaf = treeModel.isLeaf(path.getLastPathComponent());
-                    if (isLeaf) {
-                        isExpanded = hasBeenExpanded = false;
-                    } else {
-                        isExpanded = treeState.getExpandedState(path);
-                        hasBeenExpanded = tree.hasBeenExpanded(path);
-                    }
-                    bounds = getPathBounds(tree, path);
-                    rowBounds.y = bounds.y;
-                    rowBounds.height = bounds.height;
-                    paintRow(renderer, dtcr, paintContext, cellContext, g, paintBounds, insets, bounds, rowBounds, path, row, isExpanded,
-                        hasBeenExpanded, isLeaf);
-                    if ((bounds.y + bounds.height) >= endY) {
-                        done = true;
-                    }
+                int flags;
+                if (treeModel.isLeaf(path.getLastPathComponent())) {
+                    flags = ROW_LEAF;
                 } else {
-                    done = true;
+                    flags = (treeState.getExpandedState(path) ? ROW_EXPANDED : 0)
+                            | (tree.hasBeenExpanded(path) ? ROW_HAS_BEEN_EXPANDED : 0);
+                }
+
+                int row = firstRow + count;
+                if (tree.isRowSelected(row)) {
+                    flags |= ROW_SELECTED;
+                }
+
+                Rectangle bounds = getPathBounds(tree, path);
+
+                ensurePaintCapacity(count + 1);
+                paintPaths[count] = path;
+                paintBounds[count] = bounds;
+                paintFlags[count] = flags;
+                paintStates[count] = getRowState(path, row, (flags & ROW_SELECTED) != 0);
+                maxPathCount = Math.max(maxPathCount, path.getPathCount());
+                count++;
+
+                if ((bounds.y + bounds.height) >= endY) {
+                    break;
                 }
-                row++;
             }
 
+            // First pass, draw the rows
+            configureRenderer(cellContext);
+            paintRows(g, cellContext, count, firstRow);
+
             // Draw the connecting lines and controls.
             // Find each parent and have them draw a line to their last child
+            if (legPainted.length <= maxPathCount) {
+                legPainted = new boolean[maxPathCount + 1];
+            } else {
+                Arrays.fill(legPainted, false);
+            }
+
             boolean rootVisible = tree.isRootVisible();
-            TreePath parentPath = initialPath;
-            parentPath = parentPath.getParentPath();
+            TreePath parentPath = initialPath.getParentPath();
             while (parentPath != null) {
-                paintVerticalPartOfLeg(g, paintBounds, insets, parentPath);
-                drawingCache.put(parentPath, Boolean.TRUE);
+                paintVerticalPartOfLeg(g, clipBounds, insets, parentPath);
+                legPainted[parentPath.getPathCount()] = true;
                 parentPath = parentPath.getParentPath();
             }
-            done = false;
-            paintingEnumerator = treeState.getVisiblePathsFrom(initialPath);
-            while (!done && paintingEnumerator.hasMoreElements()) {
-                path = (TreePath) paintingEnumerator.nextElement();
-                if (path != null) {
-                    isLeaf = treeModel.isLeaf(path.getLastPathComponent());
-                    if (isLeaf) {
-                        isExpanded = hasBeenExpanded = false;
-                    } else {
-                        isExpanded = treeState.getExpandedState(path);
-                        hasBeenExpanded = tree.hasBeenExpanded(path);
-                    }
-                    bounds = getPathBounds(tree, path);
-                    // See if the vertical line to the parent has been drawn.
-                    parentPath = path.getParentPath();
-                    if (parentPath != null) {
-                        if (drawingCache.get(parentPath) == null) {
-                            paintVerticalPartOfLeg(g, paintBounds, insets, parentPath);
-                            drawingCache.put(parentPath, Boolean.TRUE);
-                        }
-                        paintHorizontalPartOfLeg(g, paintBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
-                    } else if (rootVisible && row == 0) {
-                        paintHorizontalPartOfLeg(g, paintBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
-                    }
-                    if (shouldPaintExpandControl(path, row, isExpanded, hasBeenExpanded, isLeaf)) {
-                        paintExpandControl(g, paintBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
-                    }
-                    if ((bounds.y + bounds.height) >= endY) {
-                        done = true;
+
+            for (int i = 0; i < count; i++) {
+                TreePath path = paintPaths[i];
+                Rectangle bounds = paintBounds[i];
+                int row = firstRow + i;
+                int pathCount = path.getPathCount();
+                boolean isLeaf = (paintFlags[i] & ROW_LEAF) != 0;
+                boolean isExpanded = (paintFlags[i] & ROW_EXPANDED) != 0;
+                boolean hasBeenExpanded = (paintFlags[i] & ROW_HAS_BEEN_EXPANDED) != 0;
+
+                // See if the vertical line to the parent has been drawn.
+                parentPath = path.getParentPath();
+                if (parentPath != null) {
+                    if (!legPainted[pathCount - 1]) {
+                        paintVerticalPartOfLeg(g, clipBounds, insets, parentPath);
+                        legPainted[pathCount - 1] = true;
                     }
-                } else {
-                    done = true;
+                    paintHorizontalPartOfLeg(g, clipBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
+                } else if (rootVisible && row == 0) {
+                    paintHorizontalPartOfLeg(g, clipBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
+                }
+                if (shouldPaintExpandControl(path, row, isExpanded, hasBeenExpanded, isLeaf)) {
+                    paintExpandControl(g, clipBounds, insets, bounds, path, row, isExpanded, hasBeenExpanded, isLeaf);
                 }
-                row++;
+
+                // This row is now the parent for any children that follow.
+                legPainted[pathCount] = false;
             }
+
+            // Don't hold on to the paths between paints.
+            Arrays.fill(paintPaths, 0, count, null);
+            Arrays.fill(paintBounds, 0, count, null);
         }
         cellContext.dispose();
 
@@ -415,6 +439,131 @@ public class SeaGlassTreeUI extends BasicTreeUI implements PropertyChangeListene
         paintContext = null;
     }
 
+    /**
+     * Grow the arrays holding the rows being painted.
+     *
+     * @param capacity
+     *            the number of rows needed
+     */
+    private void ensurePaintCapacity(int capacity) {
+        if (paintPaths.length >= capacity) {
+            return;
+        }
+
+        int size = Math.max(capacity, paintPaths.length * 2);
+        TreePath[] paths = new TreePath[size];
+        Rectangle[] bounds = new Rectangle[size];
+        int[] flags = new int[size];
+        int[] states = new int[size];
+
+        System.arraycopy(paintPaths, 0, paths, 0, paintPaths.length);
+        System.arraycopy(paintBounds, 0, bounds, 0, paintBounds.length);
+        System.arraycopy(paintFlags, 0, flags, 0, paintFlags.length);
+        System.arraycopy(paintStates, 0, states, 0, paintStates.length);
+        paintPaths = paths;
+        paintBounds = bounds;
+        paintFlags = flags;
+        paintStates = states;
+    }
+
+    /**
+     * Get the state of the cell for a row.
+     *
+     * @param path
+     *            the path of the row
+     * @param row
+     *            the row
+     * @param selected
+     *            whether the row is selected
+     * @return the state
+     */
+    private int getRowState(TreePath path, int row, boolean selected) {
+        JTree.DropLocation dropLocation = tree.getDropLocation();
+        boolean isDrop = dropLocation != null && dropLocation.getChildIndex() == -1 && path == dropLocation.getPath();
+
+        int state = ENABLED;
+        if (selected || isDrop) {
+            state |= SELECTED;
+        }
+
+        if (tree.isFocusOwner() && row == getLeadSelectionRow()) {
+            state |= FOCUSED;
+        }
+
+        return state;
+    }
+
+    /**
+     * Paint the gathered rows. Adjacent rows in the same state share their
+     * background fill and painter lookup.
+     *
+     * @param g
+     *            the {@code Graphics} object used for painting
+     * @param cellContext
+     *            the context for the tree cells
+     * @param count
+     *            the number of rows
+     * @param firstRow
+     *            the row number of the first row
+     */
+    private void paintRows(Graphics g, SeaGlassContext cellContext, int count, int firstRow) {
+        TreeCellRenderer renderer = tree.getCellRenderer();
+        DefaultTreeCellRenderer dtcr = (renderer instanceof DefaultTreeCellRenderer) ? (DefaultTreeCellRenderer) renderer : null;
+        Rectangle rowBounds = new Rectangle(0, 0, tree.getWidth(), 0);
+        int leadIndex = tree.hasFocus() ? getLeadSelectionRow() : -1;
+
+        int first = 0;
+        while (first < count) {
+            int state = paintStates[first];
+            int end = first + 1;
+            while (end < count && paintStates[end] == state
+                    && paintBounds[end].y == paintBounds[end - 1].y + paintBounds[end - 1].height) {
+                end++;
+            }
+
+            cellContext.setComponentState(state);
+
+            if (dtcr != null && (dtcr.getBorderSelectionColor() instanceof UIResource)) {
+                dtcr.setBorderSelectionColor(style.getColor(cellContext, ColorType.FOCUS));
+            }
+
+            rowBounds.y = paintBounds[first].y;
+            rowBounds.height = paintBounds[end - 1].y + paintBounds[end - 1].height - rowBounds.y;
+            SeaGlassLookAndFeel.updateSubregion(cellContext, g, rowBounds);
+
+            boolean hasPainters = true;
+            if (cellContext.getStyle() instanceof SeaGlassStyle) {
+                SeaGlassStyle rowStyle = (SeaGlassStyle) cellContext.getStyle();
+                hasPainters = rowStyle.getBackgroundPainter(cellContext) != null || rowStyle.getBorderPainter(cellContext) != null;
+            }
+
+            for (int i = first; i < end; i++) {
+                Rectangle bounds = paintBounds[i];
+                int row = firstRow + i;
+
+                if (hasPainters) {
+                    rowBounds.y = bounds.y;
+                    rowBounds.height = bounds.height;
+                    cellContext.getPainter().paintTreeCellBackground(cellContext, g, rowBounds.x, rowBounds.y, rowBounds.width, rowBounds.height);
+                    cellContext.getPainter().paintTreeCellBorder(cellContext, g, rowBounds.x, rowBounds.y, rowBounds.width, rowBounds.height);
+                }
+
+                // Don't paint the renderer if editing this row.
+                if (editingComponent != null && editingRow == row) {
+                    continue;
+                }
+
+                Component component = renderer.getTreeCellRendererComponent(tree, paintPaths[i].getLastPathComponent(),
+                    (paintFlags[i] & ROW_SELECTED) != 0, (paintFlags[i] & ROW_EXPANDED) != 0,
+                    (paintFlags[i] & ROW_LEAF) != 0, row, (leadIndex == row));
+
+                rendererPane.paintComponent(g, component, tree, bounds.x, bounds.y, bounds.width, bounds.height, true);
+            }
+
+            first = end;
+        }
+    }
+
     private void configureRenderer(SeaGlassContext context) {
         TreeCellRenderer renderer = tree.getCellRenderer();
 
@@ -483,50 +632,6 @@ public class SeaGlassTreeUI extends BasicTreeUI implements PropertyChangeListene
             .drawLine(paintContext, "Tree.verticalLine", g, x, top, x, bottom, linesStyle);
     }
 
-    private void paintRow(TreeCellRenderer renderer, DefaultTreeCellRenderer dtcr, SeaGlassContext treeContext, SeaGlassContext cellContext,
-        Graphics g, Rectangle clipBounds, Insets insets, Rectangle bounds, Rectangle rowBounds, TreePath path, int row, boolean isExpanded,
-        boolean hasBeenExpanded, boolean isLeaf) {
-        // Don't paint the renderer if editing this row.
-        boolean selected = tree.isRowSelected(row);
-
-        JTree.DropLocation dropLocation = tree.getDropLocation();
-        boolean isDrop = dropLocation != null && dropLocation.getChildIndex() == -1 && path == dropLocation.getPath();
-
-        int state = ENABLED;
-        if (selected || isDrop) {
-            state |= SELECTED;
-        }
-
-        if (tree.isFocusOwner() && row == getLeadSelectionRow()) {
-            state |= FOCUSED;
-        }
-
-        cellContext.setComponentState(state);
-
-        if (dtcr != null && (dtcr.getBorderSelectionColor() instanceof UIResource)) {
-            dtcr.setBorderSelectionColor(style.getColor(cellContext, ColorType.FOCUS));
-        }
-        SeaGlassLookAndFeel.updateSubregion(cellContext, g, rowBounds);
-        cellContext.getPainter().paintTreeCellBackground(cellContext, g, rowBounds.x, rowBounds.y, rowBounds.width, rowBounds.height);
-        cellContext.getPainter().paintTreeCellBorder(cellContext, g, rowBounds.x, rowBounds.y, rowBounds.width, rowBounds.height);
-        if (editingComponent != null && editingRow == row) {
-            return;
-        }
-
-        int leadIndex;
-
-        if (tree.hasFocus()) {
-            leadIndex = getLeadSelectionRow();
-        } else {
-            leadIndex = -1;
-        }
-
-        Component component = renderer.getTreeCellRendererComponent(tree, path.getLastPathComponent(), selected, isExpanded, isLeaf, row,
-            (leadIndex == row));
-
-        rendererPane.paintComponent(g, component, tree, bounds.x, bounds.y, bounds.width, bounds.height, true);
-    }
-
     private int findCenteredX(int x, int iconWidth) {
         return tree.getComponentOrientation().isLeftToRight() ? x - (int) Math.ceil(iconWidth / 2.0) : x
                 - (int) Math.floor(iconWidth / 2.0);
@@ -38,6 +38,7 @@ import javax.swing.plaf.synth.SynthStyle;
 import com.seaglasslookandfeel.SeaGlassContext;
 import com.seaglasslookandfeel.SeaGlassLookAndFeel;
 import com.seaglasslookandfeel.painter.ViewportPainter;
+import com.seaglasslookandfeel.util.AccessorCache;
 
 /**
  * SeaGlassViewportUI implementation.
@@ -171,12 +172,13 @@ public class SeaGlassViewportUI extends ViewportUI implements PropertyChangeList
      * @return The value returned by the getter method or the default value.
      */
     private static Object invokeGetter(Object obj, String methodName, Object defaultValue) {
+        Method method = AccessorCache.getMethod(obj.getClass(), methodName);
+        if (method == null) {
+            return defaultValue;
+        }
         try {
-            Method method = obj.getClass().getMethod(methodName, new Class[0]);
-            Object result = method.invoke(obj, new Object[0]);
+            Object result = method.invoke(obj);
             return result;
-        } catch (NoSuchMethodException e) {
-            return defaultValue;
         } catch (IllegalAccessException e) {
             return defaultValue;
         } catch (InvocationTargetException e) {
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel.util;
+
+import java.lang.reflect.Method;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A shared cache of reflectively resolved classes, methods and property
+ * getters, so that code which must use reflection, such as painting code
+ * reading arbitrary component properties, looks each one up only once.
+ *
+ * <p>Lookups which find nothing are cached too, so a property which is only
+ * ever a client property costs no reflective lookup after the first paint.
+ * Only public methods are found, as with {@link Class#getMethod}.</p>
+ *
+ * <p>The cache holds on to the classes it has seen. The look and feel clears
+ * it when it is uninstalled.</p>
+ */
+public final class AccessorCache {
+
+    /** Marks a lookup which found nothing. */
+    private static final Object NOT_FOUND = new Object();
+
+    /** Classes by name. */
+    private static final ConcurrentMap<String, Object> classes = new ConcurrentHashMap<String, Object>();
+
+    /** Methods by class, and by name and parameter types. */
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> methods =
+        new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Object>>();
+
+    /** Property getters by class, and by property name. */
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> getters =
+        new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Object>>();
+
+    /**
+     * Private constructor. All methods are static.
+     */
+    private AccessorCache() {
+    }
+
+    /**
+     * Get a class by name.
+     *
+     * @param  name the fully qualified class name.
+     *
+     * @return the class, or {@code null} if it cannot be loaded.
+     */
+    public static Class<?> getClass(String name) {
+        Object type = classes.get(name);
+
+        if (type == null) {
+            try {
+                type = Class.forName(name);
+            } catch (Exception e) {
+                // Not on this platform.
+                type = NOT_FOUND;
+            }
+
+            classes.put(name, type);
+        }
+
+        return type == NOT_FOUND ? null : (Class<?>) type;
+    }
+
+    /**
+     * Get a public method of a class.
+     *
+     * @param  type           the class.
+     * @param  name           the method name.
+     * @param  parameterTypes the parameter types.
+     *
+     * @return the method, or {@code null} if the class has no such public
+     *         method.
+     */
+    public static Method getMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        String                        key      = parameterTypes.length == 0 ? name : createKey(name, parameterTypes);
+        ConcurrentMap<String, Object> forClass = getMethods(methods, type);
+        Object                        method   = forClass.get(key);
+
+        if (method == null) {
+            try {
+                method = type.getMethod(name, parameterTypes);
+            } catch (Exception e) {
+                method = NOT_FOUND;
+            }
+
+            forClass.put(key, method);
+        }
+
+        return method == NOT_FOUND ? null : (Method) method;
+    }
+
+    /**
+     * Get the public getter of a property, such as "getSelectionBackground"
+     * for "selectionBackground".
+     *
+     * @param  type     the class.
+     * @param  property the property name.
+     *
+     * @return the getter, or {@code null} if the class has no such public
+     *         getter.
+     */
+    public static Method getGetter(Class<?> type, String property) {
+        ConcurrentMap<String, Object> forClass = getMethods(getters, type);
+        Object                        getter   = forClass.get(property);
+
+        if (getter == null) {
+            String name = "get" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+
+            try {
+                getter = type.getMethod(name);
+            } catch (Exception e) {
+                getter = NOT_FOUND;
+            }
+
+            forClass.put(property, getter);
+        }
+
+        return getter == NOT_FOUND ? null : (Method) getter;
+    }
+
+    /**
+     * Forget everything looked up, releasing the classes seen.
+     */
+    public static void clear() {
+        classes.clear();
+        methods.clear();
+        getters.clear();
+    }
+
+    /**
+     * Get the map of a class's methods, creating it if necessary.
+     *
+     * @param  cache the methods or getters cache.
+     * @param  type  the class.
+     *
+     * @return the map.
+     */
+    private static ConcurrentMap<String, Object> getMethods(ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> cache, Class<?> type) {
+        ConcurrentMap<String, Object> forClass = cache.get(type);
+
+        if (forClass == null) {
+            forClass = new ConcurrentHashMap<String, Object>();
+
+            ConcurrentMap<String, Object> existing = cache.putIfAbsent(type, forClass);
+
+            if (existing != null) {
+                forClass = existing;
+            }
+        }
+
+        return forClass;
+    }
+
+    /**
+     * Create the key of a method with parameters.
+     *
+     * @param  name           the method name.
+     * @param  parameterTypes the parameter types.
+     *
+     * @return the key, such as "setWindowShape(java.awt.Window,java.awt.Shape)".
+     */
+    private static String createKey(String name, Class<?>[] parameterTypes) {
+        StringBuilder key = new StringBuilder(name).append('(');
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+
+            key.append(parameterTypes[i].getName());
+        }
+
+        return key.append(')').toString();
+    }
+}
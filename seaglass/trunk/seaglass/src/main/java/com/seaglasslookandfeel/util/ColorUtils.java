@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel.util;
+
+import java.awt.Color;
+
+/**
+ * Primitive color arithmetic shared by derived colors and the painters.
+ *
+ * <p>These work on packed ARGB ints and keep the hue, saturation and
+ * brightness in locals, so unlike {@link Color#RGBtoHSB(int, int, int, float[])} they allocate nothing. The HSB conversion is the same
+ * arithmetic as {@code Color.RGBtoHSB}, so results are identical to the
+ * array based code they replace.</p>
+ */
+public class ColorUtils {
+
+    /**
+     * Derive a color by offsetting the hue, saturation, brightness and alpha
+     * of a source color. Each component is clamped to its range after the
+     * offset is applied.
+     *
+     * @param  argb    the source color as packed ARGB.
+     * @param  hOffset the hue offset.
+     * @param  sOffset the saturation offset.
+     * @param  bOffset the brightness offset.
+     * @param  aOffset the alpha offset, between -255 and 255.
+     *
+     * @return the derived color as packed ARGB.
+     */
+    public static int deriveARGB(int argb, float hOffset, float sOffset, float bOffset, int aOffset) {
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+
+        float hue        = clamp(hue(r, g, b) + hOffset);
+        float saturation = clamp(saturation(r, g, b) + sOffset);
+        float brightness = clamp(brightness(r, g, b) + bOffset);
+        int   alpha      = clamp((argb >>> 24) + aOffset);
+
+        return (Color.HSBtoRGB(hue, saturation, brightness) & 0xFFFFFF) | (alpha << 24);
+    }
+
+    /**
+     * Cut the saturation of a color to one third, and move its brightness one
+     * third closer to white. The result is opaque.
+     *
+     * @param  argb the source color as packed ARGB.
+     *
+     * @return the desaturated color as packed ARGB.
+     */
+    public static int desaturateARGB(int argb) {
+        int r = (argb >> 16) & 0xFF;
+        int g = (argb >> 8) & 0xFF;
+        int b = argb & 0xFF;
+
+        float hue        = hue(r, g, b);
+        float saturation = saturation(r, g, b) / 3.0f;
+        float brightness = clamp(1.0f - (1.0f - brightness(r, g, b)) / 3f);
+
+        return Color.HSBtoRGB(hue, saturation, brightness);
+    }
+
+    /**
+     * Cut the alpha of a color in half.
+     *
+     * @param  argb the source color as packed ARGB.
+     *
+     * @return the disabled color as packed ARGB.
+     */
+    public static int disableARGB(int argb) {
+        return (argb & 0xFFFFFF) | (((argb >>> 24) / 2) << 24);
+    }
+
+    /**
+     * Returns the hue of an RGB color, as computed by {@code Color.RGBtoHSB}.
+     *
+     * @param  r the red component, 0 to 255.
+     * @param  g the green component, 0 to 255.
+     * @param  b the blue component, 0 to 255.
+     *
+     * @return the hue, between 0 and 1.
+     */
+    public static float hue(int r, int g, int b) {
+        int cmax = Math.max(Math.max(r, g), b);
+        int cmin = Math.min(Math.min(r, g), b);
+
+        if (cmax == 0 || cmax == cmin) {
+            return 0;
+        }
+
+        float redc   = ((float) (cmax - r)) / ((float) (cmax - cmin));
+        float greenc = ((float) (cmax - g)) / ((float) (cmax - cmin));
+        float bluec  = ((float) (cmax - b)) / ((float) (cmax - cmin));
+        float hue;
+
+        if (r == cmax) {
+            hue = bluec - greenc;
+        } else if (g == cmax) {
+            hue = 2.0f + redc - bluec;
+        } else {
+            hue = 4.0f + greenc - redc;
+        }
+
+        hue = hue / 6.0f;
+        if (hue < 0) {
+            hue = hue + 1.0f;
+        }
+
+        return hue;
+    }
+
+    /**
+     * Returns the saturation of an RGB color, as computed by
+     * {@code Color.RGBtoHSB}.
+     *
+     * @param  r the red component, 0 to 255.
+     * @param  g the green component, 0 to 255.
+     * @param  b the blue component, 0 to 255.
+     *
+     * @return the saturation, between 0 and 1.
+     */
+    public static float saturation(int r, int g, int b) {
+        int cmax = Math.max(Math.max(r, g), b);
+        int cmin = Math.min(Math.min(r, g), b);
+
+        return cmax == 0 ? 0 : ((float) (cmax - cmin)) / ((float) cmax);
+    }
+
+    /**
+     * Returns the brightness of an RGB color, as computed by
+     * {@code Color.RGBtoHSB}.
+     *
+     * @param  r the red component, 0 to 255.
+     * @param  g the green component, 0 to 255.
+     * @param  b the blue component, 0 to 255.
+     *
+     * @return the brightness, between 0 and 1.
+     */
+    public static float brightness(int r, int g, int b) {
+        return ((float) Math.max(Math.max(r, g), b)) / 255.0f;
+    }
+
+    /**
+     * Clamp a float to the range 0 to 1.
+     *
+     * @param  value the value.
+     *
+     * @return the clamped value.
+     */
+    private static float clamp(float value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > 1) {
+            value = 1;
+        }
+
+        return value;
+    }
+
+    /**
+     * Clamp an int to the range 0 to 255.
+     *
+     * @param  value the value.
+     *
+     * @return the clamped value.
+     */
+    private static int clamp(int value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > 255) {
+            value = 255;
+        }
+
+        return value;
+    }
+}
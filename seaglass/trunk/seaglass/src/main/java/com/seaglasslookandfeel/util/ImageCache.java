@@ -27,16 +27,28 @@ import java.lang.ref.SoftReference;
 
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.seaglasslookandfeel.SeaGlassStatistics;
 
 /**
- * ImageCache - A fixed pixel count sized cache of Images keyed by arbitrary set
- * of arguments. All images are held with SoftReferences so they will be dropped
- * by the GC if heap memory gets tight. When our size hits max pixel count least
- * recently requested images are removed first.
+ * ImageCache - A fixed pixel count sized cache of Images keyed by a
+ * {@link CacheKey}. All images are held with SoftReferences so they will be dropped
+ * by the GC if heap memory gets tight. When our size hits max pixel count
+ * images that have not been requested recently are removed first.
+ *
+ * <p>Lookups never block. The entries live in a {@link ConcurrentHashMap} and a
+ * hit only sets a "referenced" bit on the entry. Eviction is a CLOCK (second
+ * chance) sweep over a ring of the entries in insertion order: the hand takes
+ * the entry at the head of the ring, and an entry whose bit is set has it
+ * cleared and goes back to the tail, while an entry whose bit is clear is
+ * removed. The ring keeps the hand's position between sweeps, and new entries
+ * start with their bit set. Only one thread sweeps at a time, and only when
+ * an insert pushes the cache over its pixel budget.</p>
  *
  * <p>Based on Nimbus's ImageCache by Jasper Potts. This was package local.</p>
  *
@@ -46,9 +58,17 @@ public class ImageCache {
     // Singleton Instance
     private static final ImageCache instance = new ImageCache();
 
-    // Ordered Map keyed by args hash, ordered by most recent accessed entry.
-    private final LinkedHashMap<Integer, PixelCountSoftReference> map = new LinkedHashMap<Integer, PixelCountSoftReference>(16, 0.75f,
-                                                                                                                            true);
+    // Map of exact keys. Access order is tracked by the entries' referenced bits.
+    private final ConcurrentHashMap<CacheKey, PixelCountSoftReference> map = new ConcurrentHashMap<CacheKey, PixelCountSoftReference>(64);
+
+    // The CLOCK ring. Its head is the entry under the hand. It may hold entries
+    // which have since been removed from the map; the sweep drops those.
+    private final ConcurrentLinkedQueue<PixelCountSoftReference> clock = new ConcurrentLinkedQueue<PixelCountSoftReference>();
+
+    // The number of entries in the CLOCK ring, kept here because the queue
+    // has to be walked to count them. Counted before an entry is offered and
+    // after one is polled, so it never falls below the true length.
+    private final AtomicInteger clockSize = new AtomicInteger();
 
     // Maximum number of pixels to cache, this is used if maxCount
     private final int maxPixelCount;
@@ -57,13 +77,19 @@ public class ImageCache {
     private final int maxSingleImagePixelSize;
 
     // The current number of pixels stored in the cache
-    private int currentPixelCount = 0;
+    private final AtomicInteger currentPixelCount = new AtomicInteger();
 
-    // Lock for concurrent access to map
-    private ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Lock held by the thread sweeping the cache. Lookups never take it.
+    private final ReentrantLock evictionLock = new ReentrantLock();
 
     // Reference queue for tracking lost softreferences to images in the cache
-    private ReferenceQueue<Image> referenceQueue = new ReferenceQueue<Image>();
+    private final ReferenceQueue<Image> referenceQueue = new ReferenceQueue<Image>();
+
+    // Statistics, so the cache can be sized. Only counted while
+    // SeaGlassStatistics is enabled.
+    private final AtomicLong hitCount      = new AtomicLong();
+    private final AtomicLong missCount     = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
 
     /**
      * Creates a new ImageCache object.
@@ -97,12 +123,18 @@ public class ImageCache {
      * Clear the cache.
      */
     public void flush() {
-        lock.readLock().lock();
+        evictionLock.lock();
 
         try {
-            map.clear();
+            for (Iterator<PixelCountSoftReference> iter = map.values().iterator(); iter.hasNext();) {
+                remove(iter.next());
+            }
+
+            while (clock.poll() != null) {
+                clockSize.decrementAndGet();
+            }
         } finally {
-            lock.readLock().unlock();
+            evictionLock.unlock();
         }
     }
 
@@ -118,6 +150,22 @@ public class ImageCache {
         return (w * h) < maxSingleImagePixelSize;
     }
 
+    /**
+     * Check if an image rendered at a device scale is too big to be stored in
+     * the cache. The limit applies to the image's size before scaling, so
+     * scaled displays cache the same components as unscaled ones.
+     *
+     * @param  w      The image width, in device pixels
+     * @param  h      The image height, in device pixels
+     * @param  scaleX The horizontal scale the image is rendered at
+     * @param  scaleY The vertical scale the image is rendered at
+     *
+     * @return True if the unscaled image size is less than max
+     */
+    public boolean isImageCachable(int w, int h, double scaleX, double scaleY) {
+        return (double) w * h < maxSingleImagePixelSize * scaleX * scaleY;
+    }
+
     /**
      * Get the cached image for given keys
      *
@@ -131,21 +179,40 @@ public class ImageCache {
      *         key
      */
     public Image getImage(GraphicsConfiguration config, int w, int h, Object... args) {
-        lock.readLock().lock();
+        return getImage(new CacheKey().set(config, null, w, h, args));
+    }
 
-        try {
-            PixelCountSoftReference ref = map.get(hash(config, w, h, args));
-
-            // check reference has not been lost and the key truly matches, in
-            // case of false positive hash match
-            if (ref != null && ref.equals(config, w, h, args)) {
-                return ref.get();
-            } else {
-                return null;
+    /**
+     * Get the cached image for the given key. The key is only used for the
+     * lookup and is not retained, so callers may reuse a single key instance.
+     *
+     * @param  key the key describing the image.
+     *
+     * @return Returns the cached Image, or null there is no cached image for
+     *         key
+     */
+    public Image getImage(CacheKey key) {
+        PixelCountSoftReference ref = map.get(key);
+
+        // check reference has not been lost
+        if (ref != null) {
+            Image image = ref.get();
+
+            if (image != null) {
+                ref.referenced = true;
+                if (SeaGlassStatistics.isStatisticsEnabled()) {
+                    hitCount.incrementAndGet();
+                }
+
+                return image;
             }
-        } finally {
-            lock.readLock().unlock();
         }
+
+        if (SeaGlassStatistics.isStatisticsEnabled()) {
+            missCount.incrementAndGet();
+        }
+
+        return null;
     }
 
     /**
@@ -162,88 +229,358 @@ public class ImageCache {
      *         big
      */
     public boolean setImage(Image image, GraphicsConfiguration config, int w, int h, Object... args) {
-        if (!isImageCachable(w, h))
+        return setImage(image, new CacheKey().set(config, null, w, h, args));
+    }
+
+    /**
+     * Sets the cached image for the specified key. The cache stores its own
+     * copy of the key, so callers may reuse a single key instance.
+     *
+     * @param  image The image to store in cache
+     * @param  key   the key describing the image.
+     *
+     * @return true if the image could be cached or false if the image is too
+     *         big
+     */
+    public boolean setImage(Image image, CacheKey key) {
+        if (!isImageCachable(key.w, key.h, key.scaleX, key.scaleY))
             return false;
 
-        int hash = hash(config, w, h, args);
+        PixelCountSoftReference ref = map.get(key);
 
-        lock.writeLock().lock();
+        // check if currently in map
+        if (ref != null && ref.get() == image) {
+            ref.referenced = true;
 
-        try {
-            PixelCountSoftReference ref = map.get(hash);
+            return true;
+        }
 
-            // check if currently in map
-            if (ref != null && ref.get() == image) {
-                return true;
-            }
+        // add new image to pixel count
+        int newPixelCount = image.getWidth(null) * image.getHeight(null);
 
-            // clear out old
-            if (ref != null) {
-                currentPixelCount -= ref.pixelCount;
-                map.remove(hash);
-            }
+        ref = new PixelCountSoftReference(image, referenceQueue, newPixelCount, key.copy());
+
+        // A new entry counts as referenced, so the sweep this insert may
+        // trigger cannot evict it straight away.
+        ref.referenced = true;
 
-            // add new image to pixel count
-            int newPixelCount = image.getWidth(null) * image.getHeight(null);
+        // Count the pixels before publishing the entry so a concurrent sweep
+        // can never subtract them first.
+        currentPixelCount.addAndGet(newPixelCount);
+        PixelCountSoftReference old = map.put(ref.key, ref);
 
-            currentPixelCount += newPixelCount;
+        // clear out old. It stays in the ring until the sweep reaches and
+        // drops it, but its image can be collected now.
+        if (old != null) {
+            currentPixelCount.addAndGet(-old.pixelCount);
+            old.clear();
+        }
 
-            // clean out lost references if not enough space
-            if (currentPixelCount > maxPixelCount) {
+        clockSize.incrementAndGet();
+        clock.offer(ref);
 
-                while ((ref = (PixelCountSoftReference) referenceQueue.poll()) != null) {
+        // Replaced entries stay in the ring until the hand passes them, so
+        // sweep once they could make up half of it, even within budget.
+        if (currentPixelCount.get() > maxPixelCount || clockSize.get() > 2 * map.size() + 16) {
+            evict();
+        }
 
-                    // reference lost
-                    map.remove(ref.hash);
-                    currentPixelCount -= ref.pixelCount;
-                }
+        return true;
+    }
+
+    /**
+     * Get the number of lookups which found a live image.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups which found no image, or found one which had
+     * been reclaimed by the garbage collector.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Get the number of images removed to keep the cache within its pixel
+     * budget.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Get the number of pixels currently accounted to the cache.
+     *
+     * @return the current pixel count.
+     */
+    public int getPixelCount() {
+        return currentPixelCount.get();
+    }
+
+    /**
+     * Get the pixel budget of the cache.
+     *
+     * @return the maximum pixel count.
+     */
+    public int getMaxPixelCount() {
+        return maxPixelCount;
+    }
+
+    /**
+     * Get the number of entries currently in the cache.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Reset the hit, miss and eviction counters to zero.
+     */
+    public void resetStatistics() {
+        hitCount.set(0);
+        missCount.set(0);
+        evictionCount.set(0);
+    }
+
+    /**
+     * Bring the cache back within its pixel budget. Entries whose images have
+     * been reclaimed by the garbage collector are dropped first, then a CLOCK
+     * sweep, continuing from where the last one stopped, removes entries
+     * which have not been referenced since the hand last passed them. If the
+     * cache is within budget, the ring is only cleared of entries which have
+     * been removed or replaced. If another thread is already sweeping, this
+     * returns immediately.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            PixelCountSoftReference ref;
+
+            // clean out lost references
+            while ((ref = (PixelCountSoftReference) referenceQueue.poll()) != null) {
+                remove(ref);
             }
 
-            // remove old items till there is enough free space
-            if (currentPixelCount > maxPixelCount) {
-                Iterator<Map.Entry<Integer, PixelCountSoftReference>> mapIter = map.entrySet().iterator();
+            if (currentPixelCount.get() <= maxPixelCount) {
+                dropStaleEntries();
 
-                while ((currentPixelCount > maxPixelCount) && mapIter.hasNext()) {
-                    Map.Entry<Integer, PixelCountSoftReference> entry = mapIter.next();
+                return;
+            }
+
+            // Move the hand round the ring. Two turns are enough: the first
+            // clears every referenced bit.
+            int steps = 2 * clockSize.get();
+
+            while (currentPixelCount.get() > maxPixelCount && steps-- > 0 && (ref = clock.poll()) != null) {
+                clockSize.decrementAndGet();
 
-                    mapIter.remove();
-                    Image img = entry.getValue().get();
+                if (map.get(ref.key) != ref) {
+
+                    // Already removed or replaced.
+                    continue;
+                } else if (ref.referenced) {
+                    ref.referenced = false;
+                    clockSize.incrementAndGet();
+                    clock.offer(ref);
+                } else if (remove(ref)) {
+                    Image img = ref.get();
 
                     if (img != null)
                         img.flush();
 
-                    currentPixelCount -= entry.getValue().pixelCount;
+                    if (SeaGlassStatistics.isStatisticsEnabled()) {
+                        evictionCount.incrementAndGet();
+                    }
                 }
             }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
 
-            // finaly put new in map
-            map.put(hash, new PixelCountSoftReference(image, referenceQueue, newPixelCount, hash, config, w, h, args));
+    /**
+     * Move the hand once round the ring, dropping entries which have been
+     * removed from the map or replaced, and leaving the referenced bits of
+     * the others alone. Must be called holding the eviction lock.
+     */
+    private void dropStaleEntries() {
+        PixelCountSoftReference ref;
 
-            return true;
-        } finally {
-            lock.writeLock().unlock();
+        for (int steps = clockSize.get(); steps > 0 && (ref = clock.poll()) != null; steps--) {
+            clockSize.decrementAndGet();
+
+            if (map.get(ref.key) == ref) {
+                clockSize.incrementAndGet();
+                clock.offer(ref);
+            }
         }
     }
 
     /**
-     * Create a unique hash from all the input.
+     * Remove an entry if it is still mapped, releasing its pixels exactly once.
      *
-     * @param  config the graphics configuration.
-     * @param  w      the width.
-     * @param  h      the height.
-     * @param  args   the arguments for the image.
+     * @param  ref the entry to remove.
      *
-     * @return the hash for the object instance.
+     * @return {@code true} if this call removed the entry, {@code false} if it
+     *         had already been removed or replaced.
      */
-    private int hash(GraphicsConfiguration config, int w, int h, Object... args) {
-        int hash;
+    private boolean remove(PixelCountSoftReference ref) {
+        if (map.remove(ref.key, ref)) {
+            currentPixelCount.addAndGet(-ref.pixelCount);
 
-        hash = (config != null ? config.hashCode() : 0);
-        hash = 31 * hash + w;
-        hash = 31 * hash + h;
-        hash = 31 * hash + Arrays.deepHashCode(args);
+            return true;
+        }
 
-        return hash;
+        return false;
+    }
+
+    /**
+     * The key for a cached image. Two keys are equal only if they have the
+     * same graphics configuration, the same owner (by identity), the same size
+     * and equal extended arguments, so distinct images can never overwrite
+     * one another because their hashes collide.
+     *
+     * <p>Keys are mutable so that a caller can keep one instance and
+     * {@link #set} it before each lookup without creating garbage. The cache
+     * only ever stores private copies.</p>
+     */
+    public static final class CacheKey {
+        private GraphicsConfiguration config;
+        private Object                owner;
+        private int                   w;
+        private int                   h;
+        private double                scaleX;
+        private double                scaleY;
+        private Object[]              args;
+        private int                   hash;
+
+        /**
+         * Set the key values.
+         *
+         * @param  config the graphics configuration.
+         * @param  owner  the object rendering the image, usually a painter.
+         *                Compared by identity.
+         * @param  w      the width.
+         * @param  h      the height.
+         * @param  args   any additional values the image depends on. May be
+         *                {@code null}.
+         *
+         * @return this key.
+         */
+        public CacheKey set(GraphicsConfiguration config, Object owner, int w, int h, Object[] args) {
+            return set(config, owner, w, h, 1, 1, args);
+        }
+
+        /**
+         * Set the key values for an image rendered at a scale, such as the
+         * device scale of a high resolution screen. The width and height are
+         * those of the image, in device pixels.
+         *
+         * @param  config the graphics configuration.
+         * @param  owner  the object rendering the image, usually a painter.
+         *                Compared by identity.
+         * @param  w      the width, in device pixels.
+         * @param  h      the height, in device pixels.
+         * @param  scaleX the horizontal scale the image was rendered at.
+         * @param  scaleY the vertical scale the image was rendered at.
+         * @param  args   any additional values the image depends on. May be
+         *                {@code null}.
+         *
+         * @return this key.
+         */
+        public CacheKey set(GraphicsConfiguration config, Object owner, int w, int h, double scaleX, double scaleY, Object[] args) {
+            this.config = config;
+            this.owner  = owner;
+            this.w      = w;
+            this.h      = h;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.args   = args;
+
+            int hash = (config != null ? config.hashCode() : 0);
+
+            hash      = 31 * hash + System.identityHashCode(owner);
+            hash      = 31 * hash + w;
+            hash      = 31 * hash + h;
+            hash      = 31 * hash + hashCode(scaleX);
+            hash      = 31 * hash + hashCode(scaleY);
+            hash      = 31 * hash + Arrays.deepHashCode(args);
+            this.hash = hash;
+
+            return this;
+        }
+
+        /**
+         * Hash a scale without boxing it.
+         *
+         * @param  value the scale.
+         *
+         * @return the hash, as Double.hashCode computes it.
+         */
+        private static int hashCode(double value) {
+            long bits = Double.doubleToLongBits(value);
+
+            return (int) (bits ^ (bits >>> 32));
+        }
+
+        /**
+         * Create an immutable copy of this key, suitable for storing.
+         *
+         * @return the copy.
+         */
+        CacheKey copy() {
+            CacheKey key = new CacheKey();
+
+            key.config = config;
+            key.owner  = owner;
+            key.w      = w;
+            key.h      = h;
+            key.scaleX = scaleX;
+            key.scaleY = scaleY;
+            key.args   = args == null ? null : args.clone();
+            key.hash   = hash;
+
+            return key;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+
+            CacheKey other = (CacheKey) obj;
+
+            return hash == other.hash && owner == other.owner && config == other.config && w == other.w && h == other.h
+                && scaleX == other.scaleX && scaleY == other.scaleY && Arrays.deepEquals(args, other.args);
+        }
     }
 
     /**
@@ -251,14 +588,11 @@ public class ImageCache {
      * is lost.
      */
     private static class PixelCountSoftReference extends SoftReference<Image> {
-        private final int pixelCount;
-        private final int hash;
+        private final int      pixelCount;
+        private final CacheKey key;
 
-        // key parts
-        private final GraphicsConfiguration config;
-        private final int                   w;
-        private final int                   h;
-        private final Object[]              args;
+        // CLOCK bit, set on every hit and cleared by the eviction sweep.
+        private volatile boolean referenced;
 
         /**
          * Creates a new PixelCountSoftReference object.
@@ -266,36 +600,12 @@ public class ImageCache {
          * @param referent   the image.
          * @param q          the reference queue.
          * @param pixelCount the pixel count.
-         * @param hash       the hash.
-         * @param config     the graphics configuration.
-         * @param w          the width.
-         * @param h          the height.
-         * @param args       the arguments for the image.
+         * @param key        the key the image is stored under.
          */
-        public PixelCountSoftReference(Image referent, ReferenceQueue<? super Image> q, int pixelCount, int hash,
-                GraphicsConfiguration config, int w, int h, Object[] args) {
+        public PixelCountSoftReference(Image referent, ReferenceQueue<? super Image> q, int pixelCount, CacheKey key) {
             super(referent, q);
             this.pixelCount = pixelCount;
-            this.hash       = hash;
-            this.config     = config;
-            this.w          = w;
-            this.h          = h;
-            this.args       = args;
-        }
-
-        /**
-         * Tests for equality.
-         *
-         * @param  config the graphics configuration.
-         * @param  w      the width.
-         * @param  h      the height.
-         * @param  args   the arguments for the image.
-         *
-         * @return {@code true} if the arguments describe the same object as
-         *         this one, {@code false} otherwise.
-         */
-        public boolean equals(GraphicsConfiguration config, int w, int h, Object[] args) {
-            return config == this.config && w == this.w && h == this.h && Arrays.equals(args, this.args);
+            this.key        = key;
         }
     }
 }
@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel.util;
+
+import java.awt.Dimension;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.Icon;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.JPopupMenu;
+import javax.swing.JProgressBar;
+import javax.swing.JRadioButton;
+import javax.swing.JRadioButtonMenuItem;
+import javax.swing.JScrollBar;
+import javax.swing.JTabbedPane;
+import javax.swing.JTextField;
+import javax.swing.JToggleButton;
+import javax.swing.JTree;
+import javax.swing.SwingUtilities;
+import javax.swing.UIDefaults;
+
+import com.seaglasslookandfeel.painter.AbstractRegionPainter;
+
+/**
+ * Resolves the painters of the most common regions on a background thread and
+ * renders their cached images ahead of time, so that the first time a control
+ * appears it does not have to create its painters and their images.
+ *
+ * <p>Regions are warmed in the order they were added, until the time budget
+ * runs out. For each region every painter whose key starts with the region's
+ * prefix is resolved. Icon painters are rendered at the size of their icon,
+ * and other painters at the given sizes, or at the preferred size of a
+ * component of the given class if no sizes are given.</p>
+ *
+ * <p>The components are created and measured on the event dispatch thread, a
+ * region at a time, as Swing requires. Only resolving the painters and
+ * rendering their images is done on the background thread.</p>
+ *
+ * <p>Warming up is opt-in. Pass a PainterWarmUp to
+ * {@link com.seaglasslookandfeel.SeaGlassLookAndFeel#setPainterWarmUp} before
+ * installing the look and feel.</p>
+ */
+public class PainterWarmUp implements Runnable {
+
+    /** The default time budget, in milliseconds. */
+    public static final long DEFAULT_BUDGET = 500;
+
+    /** The regions to warm, in priority order. */
+    private final List<WarmUpRegion> regions = new ArrayList<WarmUpRegion>();
+
+    /** The time budget, in milliseconds. */
+    private volatile long budget = DEFAULT_BUDGET;
+
+    /** The defaults to resolve painters from. Set when started. */
+    private volatile UIDefaults defaults;
+
+    /** Set to stop warming up. */
+    private volatile boolean cancelled;
+
+    /** The number of painters resolved. */
+    private volatile int painterCount;
+
+    /** The number of images rendered into the image cache. */
+    private volatile int imageCount;
+
+    /**
+     * Creates a new PainterWarmUp object with no regions.
+     */
+    public PainterWarmUp() {
+    }
+
+    /**
+     * Create a PainterWarmUp for the controls most applications show first:
+     * buttons, text fields, scroll bars, menus and dialog icons.
+     *
+     * @return the new warm-up.
+     */
+    public static PainterWarmUp createDefault() {
+        PainterWarmUp warmUp = new PainterWarmUp();
+
+        warmUp.addRegion("Button", JButton.class);
+        warmUp.addRegion("ToggleButton", JToggleButton.class);
+        warmUp.addRegion("CheckBox", JCheckBox.class);
+        warmUp.addRegion("RadioButton", JRadioButton.class);
+        warmUp.addRegion("TextField", JTextField.class);
+        warmUp.addRegion("ComboBox", JComboBox.class);
+        warmUp.addRegion("ScrollBar:ScrollBarTrack", JScrollBar.class);
+        warmUp.addRegion("ScrollBar:ScrollBarThumb", JScrollBar.class);
+        warmUp.addRegion("MenuBar", JMenuBar.class);
+        warmUp.addRegion("Menu", JMenu.class);
+        warmUp.addRegion("MenuItem", JMenuItem.class);
+        warmUp.addRegion("CheckBoxMenuItem", JCheckBoxMenuItem.class);
+        warmUp.addRegion("RadioButtonMenuItem", JRadioButtonMenuItem.class);
+        warmUp.addRegion("PopupMenu", JPopupMenu.class);
+        warmUp.addRegion("OptionPane", JOptionPane.class);
+        warmUp.addRegion("TabbedPane:TabbedPaneTab", JTabbedPane.class);
+        warmUp.addRegion("ProgressBar", JProgressBar.class);
+        warmUp.addRegion("Tree", JTree.class);
+
+        return warmUp;
+    }
+
+    /**
+     * Add a region to warm, after those already added.
+     *
+     * @param prefix         the region prefix, such as "Button" or
+     *                       "ScrollBar:ScrollBarThumb".
+     * @param componentClass the class of the component the painters are
+     *                       rendered for. It must have a public no-argument
+     *                       constructor. If {@code null}, the painters are
+     *                       resolved but not rendered.
+     * @param sizes          the sizes to render painters other than icon
+     *                       painters at. If none are given, the preferred size
+     *                       of the component is used.
+     */
+    public void addRegion(String prefix, Class<? extends JComponent> componentClass, Dimension... sizes) {
+        synchronized (regions) {
+            regions.add(new WarmUpRegion(prefix, componentClass, sizes));
+        }
+    }
+
+    /**
+     * Set the time budget. Warming up stops once it has taken this long.
+     *
+     * @param budget the budget, in milliseconds.
+     */
+    public void setBudget(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Get the time budget.
+     *
+     * @return the budget, in milliseconds.
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Get the number of painters resolved so far.
+     *
+     * @return the painter count.
+     */
+    public int getPainterCount() {
+        return painterCount;
+    }
+
+    /**
+     * Get the number of images rendered into the image cache so far.
+     *
+     * @return the image count.
+     */
+    public int getImageCount() {
+        return imageCount;
+    }
+
+    /**
+     * Start warming up the painters in the given defaults on a low priority
+     * background thread. The defaults must already be installed in the
+     * UIManager.
+     *
+     * @param defaults the look and feel defaults.
+     */
+    public void start(UIDefaults defaults) {
+        this.defaults  = defaults;
+        this.cancelled = false;
+
+        Thread thread = new Thread(this, "SeaGlass painter warm-up");
+
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stop warming up as soon as possible.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Warm up the regions on the current thread, within the budget.
+     */
+    public void run() {
+        UIDefaults            defaults = this.defaults;
+        GraphicsConfiguration config   = null;
+
+        if (defaults == null) {
+            return;
+        }
+
+        // With no screen there is nothing to render for, but resolving the
+        // painters still helps.
+        if (!GraphicsEnvironment.isHeadless()) {
+            config = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        }
+
+        long           deadline = System.currentTimeMillis() + budget;
+        Object[]       keys     = defaults.keySet().toArray();
+        WarmUpRegion[] toWarm;
+
+        synchronized (regions) {
+            toWarm = regions.toArray(new WarmUpRegion[regions.size()]);
+        }
+
+        for (WarmUpRegion region : toWarm) {
+            if (cancelled || System.currentTimeMillis() > deadline) {
+                return;
+            }
+
+            RegionComponent component = new RegionComponent(region);
+
+            if (config != null && !component.create()) {
+                return;
+            }
+
+            for (Object key : keys) {
+                if (cancelled || System.currentTimeMillis() > deadline) {
+                    return;
+                }
+
+                if (key instanceof String && region.isPainterKey((String) key)) {
+                    warmPainter(defaults, config, region, (String) key, component);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolve a painter, and render it if it caches images.
+     *
+     * @param defaults the look and feel defaults.
+     * @param config   the configuration to render for, or {@code null} to
+     *                 only resolve the painter.
+     * @param region   the region.
+     * @param key       the painter key.
+     * @param component the component to render for. If it has not been
+     *                  created, the painter is only resolved.
+     */
+    private void warmPainter(UIDefaults defaults, GraphicsConfiguration config, WarmUpRegion region, String key,
+            RegionComponent component) {
+        Object painter = defaults.get(key);
+
+        if (painter == null) {
+            return;
+        }
+
+        painterCount++;
+
+        JComponent c = component.component;
+
+        if (config == null || c == null || !(painter instanceof AbstractRegionPainter)) {
+            return;
+        }
+
+        String name = key.substring(key.lastIndexOf('.') + 1);
+
+        if (name.endsWith("IconPainter") || name.equals("iconPainter")) {
+            // Icon painters are always painted at the size of their icon.
+            Object icon = defaults.get(region.prefix + "." + name.substring(0, name.length() - "Painter".length()));
+
+            if (icon instanceof Icon) {
+                prerender((AbstractRegionPainter) painter, config, c, ((Icon) icon).getIconWidth(), ((Icon) icon).getIconHeight());
+            }
+        } else if (region.sizes.length > 0) {
+            for (Dimension size : region.sizes) {
+                prerender((AbstractRegionPainter) painter, config, c, size.width, size.height);
+            }
+        } else {
+            Dimension size = component.preferredSize;
+
+            prerender((AbstractRegionPainter) painter, config, c, size.width, size.height);
+        }
+    }
+
+    /**
+     * Render a painter into the image cache.
+     *
+     * @param painter the painter.
+     * @param config  the configuration to render for.
+     * @param c       the component to render for.
+     * @param w       the width.
+     * @param h       the height.
+     */
+    private void prerender(AbstractRegionPainter painter, GraphicsConfiguration config, JComponent c, int w, int h) {
+        try {
+            if (painter.prerender(config, c, w, h)) {
+                imageCount++;
+            }
+        } catch (RuntimeException e) {
+            // The painter did not expect a component like this one. It will
+            // be rendered when it is first really painted.
+        }
+    }
+
+    /**
+     * The component a region's painters are rendered for, with its preferred
+     * size. Both are taken on the event dispatch thread.
+     */
+    private static class RegionComponent implements Runnable {
+        final WarmUpRegion  region;
+        volatile JComponent component;
+        volatile Dimension  preferredSize;
+
+        /**
+         * Creates a new RegionComponent object.
+         *
+         * @param region the region.
+         */
+        RegionComponent(WarmUpRegion region) {
+            this.region = region;
+        }
+
+        /**
+         * Create and measure the component on the event dispatch thread,
+         * waiting for it to be done.
+         *
+         * @return {@code false} if the thread was interrupted while waiting,
+         *         {@code true} otherwise, even if the region has no component.
+         */
+        boolean create() {
+            if (SwingUtilities.isEventDispatchThread()) {
+                run();
+
+                return true;
+            }
+
+            try {
+                SwingUtilities.invokeAndWait(this);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                return false;
+            } catch (InvocationTargetException e) {
+                // The component could not be measured. Its painters are only
+                // resolved.
+                component = null;
+            }
+
+            return true;
+        }
+
+        /**
+         * Create and measure the component.
+         */
+        public void run() {
+            JComponent c = region.createComponent();
+
+            if (c != null) {
+                preferredSize = c.getPreferredSize();
+                component     = c;
+            }
+        }
+    }
+
+    /**
+     * A region to warm.
+     */
+    private static class WarmUpRegion {
+        final String                      prefix;
+        final Class<? extends JComponent> componentClass;
+        final Dimension[]                 sizes;
+
+        /**
+         * Creates a new WarmUpRegion object.
+         *
+         * @param prefix         the region prefix.
+         * @param componentClass the component class, or {@code null}.
+         * @param sizes          the sizes to render at.
+         */
+        WarmUpRegion(String prefix, Class<? extends JComponent> componentClass, Dimension[] sizes) {
+            this.prefix         = prefix;
+            this.componentClass = componentClass;
+            this.sizes          = sizes == null ? new Dimension[0] : sizes;
+        }
+
+        /**
+         * Returns {@code true} if the key is a painter of this region, such as
+         * "Button[Enabled].backgroundPainter" or "Button.backgroundPainter".
+         *
+         * @param  key the key.
+         *
+         * @return {@code true} if the key is a painter of this region,
+         *         {@code false} otherwise.
+         */
+        boolean isPainterKey(String key) {
+            if (!key.endsWith("Painter") || !key.startsWith(prefix) || key.length() == prefix.length()) {
+                return false;
+            }
+
+            char c = key.charAt(prefix.length());
+
+            return (c == '[' || c == '.') && key.indexOf('.', prefix.length() + 1) == key.lastIndexOf('.');
+        }
+
+        /**
+         * Create a component to render for.
+         *
+         * @return the component, or {@code null} if there is no component class
+         *         or it could not be created.
+         */
+        JComponent createComponent() {
+            if (componentClass == null) {
+                return null;
+            }
+
+            try {
+                return componentClass.newInstance();
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+}
@@ -242,11 +242,7 @@ public class SeaGlassGraphicsUtils extends SynthGraphicsUtils {
      */
     // Rossi: used in slider ui "paint ticks".
     public static Color disable(Color color) {
-        int alpha = color.getAlpha();
-
-        alpha /= 2;
-
-        return new Color((color.getRGB() & 0xFFFFFF) | (alpha << 24), true);
+        return new Color(ColorUtils.disableARGB(color.getRGB()), true);
     }
 
     /**
@@ -88,9 +88,13 @@ public class WindowUtils {
      * @param s
      */
     private static void setWindowShapeJava7(Window window, Shape s) {
+        Method method = AccessorCache.getMethod(window.getClass(), "setShape", Shape.class);
+
+        if (method == null) {
+            return;
+        }
+
         try {
-            Class  clazz  = window.getClass();
-            Method method = clazz.getMethod("setShape", Shape.class);
             method.invoke(window, s);
         } catch (Exception e) {
             // silently ignore this exception.
@@ -102,10 +106,14 @@ public class WindowUtils {
      * @param s
      */
     private static void setWindowShapeJava6(Window window, Shape s) {
+        Method method = getAWTUtilitiesMethod("setWindowShape", Shape.class);
+
+        if (method == null) {
+            return;
+        }
+
         try {
-            Class  clazz  = Class.forName("com.sun.awt.AWTUtilities");
-            Method method = clazz.getMethod("setWindowShape", java.awt.Window.class, Shape.class);
-            method.invoke(clazz, window, s);
+            method.invoke(null, window, s);
         } catch (Exception e) {
             // silently ignore this exception.
         }
@@ -123,16 +131,35 @@ public class WindowUtils {
      */
     @SuppressWarnings("unchecked")
     private static void quietlyTryToMakeWindowNonOqaque(Window window) {
-        try {
-            Class  clazz  = Class.forName("com.sun.awt.AWTUtilities");
-            Method method = clazz.getMethod("setWindowOpaque", java.awt.Window.class, Boolean.TYPE);
+        Method method = getAWTUtilitiesMethod("setWindowOpaque", Boolean.TYPE);
+
+        if (method == null) {
+            return;
+        }
 
-            method.invoke(clazz, window, false);
+        try {
+            method.invoke(null, window, false);
         } catch (Exception e) {
             // silently ignore this exception.
         }
     }
 
+    /**
+     * Get a static method of {@code com.sun.awt.AWTUtilities} which takes a
+     * window and one other argument. The lookup is cached, including when the
+     * class or method does not exist.
+     *
+     * @param  name          the method name.
+     * @param  parameterType the type of the argument after the window.
+     *
+     * @return the method, or {@code null} if it is not available.
+     */
+    private static Method getAWTUtilitiesMethod(String name, Class<?> parameterType) {
+        Class<?> clazz = AccessorCache.getClass("com.sun.awt.AWTUtilities");
+
+        return clazz == null ? null : AccessorCache.getMethod(clazz, name, Window.class, parameterType);
+    }
+
     /**
      * Create and install the repaint window focus listener.
      *
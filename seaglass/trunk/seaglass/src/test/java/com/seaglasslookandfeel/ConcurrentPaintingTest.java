@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel;
+
+import static org.junit.Assert.assertNull;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.GridLayout;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JRadioButton;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.JToggleButton;
+import javax.swing.JTree;
+import javax.swing.UIManager;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.seaglasslookandfeel.util.ImageCache;
+
+/**
+ * Paints the same components on several threads at once and checks that every
+ * thread gets exactly the image that painting on a single thread gives.
+ */
+public class ConcurrentPaintingTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS  = 25;
+    private static final int WIDTH   = 480;
+    private static final int HEIGHT  = 360;
+
+    /**
+     * Install the look and feel.
+     *
+     * @throws Exception java.lang.Exception
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        UIManager.setLookAndFeel(new SeaGlassLookAndFeel());
+    }
+
+    /**
+     * Each thread creates its own panel and paints it repeatedly, emptying the
+     * image cache now and then so the painters really paint.
+     *
+     * @throws Exception java.lang.Exception
+     */
+    @Test
+    public void testParallelPaintingMatchesSerialPainting() throws Exception {
+        final int[]          expected = render(createPanel());
+        final CountDownLatch start    = new CountDownLatch(1);
+        ExecutorService      executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<String>() {
+                        public String call() throws Exception {
+                            start.await();
+
+                            JComponent panel = createPanel();
+
+                            for (int round = 0; round < ROUNDS; round++) {
+                                if (round % 5 == 0) {
+                                    ImageCache.getInstance().flush();
+                                }
+
+                                String mismatch = compare(expected, render(panel));
+
+                                if (mismatch != null) {
+                                    return "Round " + round + ": " + mismatch;
+                                }
+                            }
+
+                            return null;
+                        }
+                    }));
+            }
+
+            start.countDown();
+
+            for (Future<String> result : results) {
+                assertNull(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Create a panel holding a selection of components.
+     *
+     * @return the panel, laid out.
+     */
+    private static JComponent createPanel() {
+        JPanel panel = new JPanel(new GridLayout(0, 3, 4, 4));
+
+        panel.add(new JButton("Button"));
+        panel.add(new JToggleButton("Toggle", true));
+        panel.add(new JCheckBox("Check", true));
+        panel.add(new JRadioButton("Radio"));
+        panel.add(new JTextField("Text"));
+        panel.add(new JComboBox(new String[] { "One", "Two", "Three" }));
+        panel.add(new JScrollBar(JScrollBar.HORIZONTAL));
+
+        JProgressBar progressBar = new JProgressBar(0, 100);
+
+        progressBar.setValue(40);
+        panel.add(progressBar);
+        panel.add(new JLabel("Label", UIManager.getIcon("OptionPane.informationIcon"), JLabel.LEFT));
+
+        JTabbedPane tabbedPane = new JTabbedPane();
+
+        tabbedPane.addTab("First", new JLabel("First"));
+        tabbedPane.addTab("Second", new JLabel("Second"));
+        panel.add(tabbedPane);
+
+        JTable table = new JTable(new Object[][] {
+                                      { "a", "b", Boolean.TRUE },
+                                      { "c", "d", Boolean.FALSE },
+                                      { "e", "f", Boolean.TRUE },
+                                  }, new Object[] { "One", "Two", "Three" });
+
+        table.setRowSelectionInterval(1, 1);
+        panel.add(new JScrollPane(table));
+        panel.add(new JScrollPane(new JTree()));
+
+        panel.setSize(WIDTH, HEIGHT);
+        layout(panel);
+
+        return panel;
+    }
+
+    /**
+     * Lay out a component and its children.
+     *
+     * @param c the component.
+     */
+    private static void layout(Component c) {
+        if (c instanceof Container) {
+            Container container = (Container) c;
+
+            container.doLayout();
+
+            for (Component child : container.getComponents()) {
+                layout(child);
+            }
+        }
+    }
+
+    /**
+     * Paint a component into an image.
+     *
+     * @param  c the component.
+     *
+     * @return the pixels of the image.
+     */
+    private static int[] render(JComponent c) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D    g     = image.createGraphics();
+
+        c.printAll(g);
+        g.dispose();
+
+        return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+    }
+
+    /**
+     * Compare two images pixel by pixel.
+     *
+     * @param  expected the expected pixels.
+     * @param  actual   the actual pixels.
+     *
+     * @return a description of the first difference, or {@code null} if the
+     *         images are identical.
+     */
+    private static String compare(int[] expected, int[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] != actual[i]) {
+                return "pixel (" + (i % WIDTH) + ", " + (i / WIDTH) + ") is " + Integer.toHexString(actual[i]) + ", expected "
+                    + Integer.toHexString(expected[i]);
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2009 Kathryn Huxtable and Kenneth Orr.
+ *
+ * This file is part of the SeaGlass Pluggable Look and Feel.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * $Id$
+ */
+package com.seaglasslookandfeel.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.seaglasslookandfeel.SeaGlassLookAndFeel;
+
+/**
+ * Checks the grid lines the table paints into its viewport.
+ */
+public class SeaGlassTableUITest {
+
+    private static final int   COLUMN_WIDTH = 75;
+    private static final Color GRID_COLOR   = Color.RED;
+
+    /**
+     * Install the look and feel.
+     *
+     * @throws Exception java.lang.Exception
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        UIManager.setLookAndFeel(new SeaGlassLookAndFeel());
+    }
+
+    /**
+     * With the view scrolled sideways, the vertical grid lines must stay on
+     * the column edges.
+     */
+    @Test
+    public void testVerticalLinesFollowHorizontalScrolling() {
+        JTable table = new JTable(20, 4);
+
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        table.setShowHorizontalLines(false);
+        table.setShowVerticalLines(true);
+        table.setGridColor(GRID_COLOR);
+
+        for (int i = 0; i < table.getColumnCount(); i++) {
+            table.getColumnModel().getColumn(i).setPreferredWidth(COLUMN_WIDTH);
+        }
+
+        JScrollPane scrollPane = new JScrollPane(table);
+
+        JViewport viewport = scrollPane.getViewport();
+
+        scrollPane.setSize(200, 150);
+        scrollPane.doLayout();
+        viewport.doLayout();
+        viewport.setViewPosition(new Point(23, 0));
+
+        BufferedImage image = new BufferedImage(scrollPane.getWidth(), scrollPane.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D    g     = image.createGraphics();
+
+        scrollPane.paint(g);
+        g.dispose();
+
+        // Look halfway down the second row, which is not striped.
+        int y = table.getRowHeight() * 3 / 2;
+
+        for (int edge = COLUMN_WIDTH - 1; edge - 23 < viewport.getWidth(); edge += COLUMN_WIDTH) {
+            Point p = SwingUtilities.convertPoint(table, edge, y, scrollPane);
+
+            assertEquals("grid line at column edge " + edge, GRID_COLOR.getRGB(), image.getRGB(p.x, p.y));
+
+            // The same position in the viewport is inside a column.
+            if (edge < viewport.getWidth()) {
+                p = SwingUtilities.convertPoint(viewport, edge, y, scrollPane);
+
+                assertFalse("grid line inside the column at " + edge, image.getRGB(p.x, p.y) == GRID_COLOR.getRGB());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.seaglasslookandfeel;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JComponent;
+import javax.swing.JTextField;
+import javax.swing.UIManager;
+
+import com.seaglasslookandfeel.painter.AbstractRegionPainter;
+import com.seaglasslookandfeel.painter.AbstractRegionPainter.CacheBacking;
+import com.seaglasslookandfeel.util.ImageCache;
+
+/**
+ * Times painting cached controls into a BufferedImage, as server-side
+ * rendering of a form does, with painter images kept in VolatileImages and
+ * in BufferedImages.
+ *
+ * <p>Run with no arguments, with or without -Djava.awt.headless=true. Each
+ * round first paints every control at a set of new sizes, which renders their
+ * images, and then paints them again many times from the cache. Read the
+ * later rounds.</p>
+ */
+public class CacheBackingBenchmark {
+
+    private static final int        ROUNDS   = 5;
+    private static final int        REPEATS  = 200;
+    private static final int[]      WIDTHS   = { 60, 80, 100, 120, 140, 160 };
+    private static final String[][] PAINTERS = {
+        { "Button[Enabled].backgroundPainter", "Button" },
+        { "Button[Default].backgroundPainter", "Button" },
+        { "TextField[Enabled].borderPainter", "TextField" },
+        { "TextField[Enabled].backgroundPainter", "TextField" },
+        { "ComboBox[Enabled].backgroundPainter", "ComboBox" },
+        { "CheckBox[Enabled].iconPainter", "CheckBox" },
+    };
+
+    public static void main(String[] args) throws Exception {
+        UIManager.setLookAndFeel(new SeaGlassLookAndFeel());
+        SeaGlassStatistics.setStatisticsEnabled(true);
+
+        BufferedImage image = new BufferedImage(200, 40, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D    g     = image.createGraphics();
+
+        System.out.printf("automatic backing for this configuration: %s%n",
+                          AbstractRegionPainter.isVolatileBacked(g.getDeviceConfiguration()) ? "volatile images" : "buffered images");
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (CacheBacking backing : new CacheBacking[] { CacheBacking.VOLATILE_IMAGE, CacheBacking.BUFFERED_IMAGE }) {
+                AbstractRegionPainter.setCacheBacking(backing);
+                ImageCache.getInstance().flush();
+                ImageCache.getInstance().resetStatistics();
+
+                long start = System.nanoTime();
+
+                paintAll(g, 1);
+                long cold = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                paintAll(g, REPEATS);
+                long warm = System.nanoTime() - start;
+
+                int paints = PAINTERS.length * WIDTHS.length;
+
+                System.out.printf("round %d, %s: first paint %.1f us, cached paint %.2f us, %d cache misses%n", round, backing,
+                                  cold / 1e3 / paints, warm / 1e3 / paints / REPEATS, ImageCache.getInstance().getMissCount());
+            }
+        }
+
+        g.dispose();
+        AbstractRegionPainter.setCacheBacking(CacheBacking.AUTOMATIC);
+    }
+
+    /**
+     * Paint every painter at every width.
+     *
+     * @param g       the graphics to paint into.
+     * @param repeats the number of times to paint each.
+     */
+    private static void paintAll(Graphics2D g, int repeats) {
+        for (String[] painter : PAINTERS) {
+            AbstractRegionPainter p = (AbstractRegionPainter) UIManager.get(painter[0]);
+            JComponent            c = createComponent(painter[1]);
+            Dimension             d = c.getPreferredSize();
+
+            for (int width : WIDTHS) {
+                // Icons are small, but each width still gets its own size.
+                int w = painter[0].endsWith("iconPainter") ? 10 + width / 20 : width;
+                int h = painter[0].endsWith("iconPainter") ? w : d.height;
+
+                c.setSize(w, h);
+                for (int i = 0; i < repeats; i++) {
+                    p.paint(g, c, w, h);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a component to paint for.
+     *
+     * @param  region the region name.
+     *
+     * @return the component.
+     */
+    private static JComponent createComponent(String region) {
+        if ("TextField".equals(region)) {
+            return new JTextField(10);
+        } else if ("ComboBox".equals(region)) {
+            return new JComboBox(new String[] { "one", "two" });
+        } else if ("CheckBox".equals(region)) {
+            return new JCheckBox("check");
+        }
+
+        return new JButton("button");
+    }
+}
@@ -0,0 +1,105 @@
+package com.seaglasslookandfeel;
+
+import java.awt.Color;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import com.seaglasslookandfeel.util.ColorUtils;
+
+/**
+ * Compares the array based HSB derivation the painters used to do with the
+ * allocation-free {@link ColorUtils} kernel, and reports how well
+ * {@link DerivedColor#hashCode()} spreads a realistic set of colors.
+ *
+ * <p>Run with no arguments. Each measurement is repeated a few times so the
+ * JIT has settled before the last rounds; read the later figures.</p>
+ */
+public class ColorDerivationBenchmark {
+
+    private static final int COLORS     = 1024;
+    private static final int ITERATIONS = 5000;
+    private static final int ROUNDS     = 5;
+
+    private static int[]   argb    = new int[COLORS];
+    private static float[] offsets = new float[COLORS * 3];
+    private static int[]   alphas  = new int[COLORS];
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        for (int i = 0; i < COLORS; i++) {
+            argb[i]            = random.nextInt();
+            offsets[i * 3]     = random.nextFloat() - 0.5f;
+            offsets[i * 3 + 1] = random.nextFloat() - 0.5f;
+            offsets[i * 3 + 2] = random.nextFloat() - 0.5f;
+            alphas[i]          = random.nextInt(511) - 255;
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start    = System.nanoTime();
+            int  expected = arrayBased();
+            long array    = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int  actual = kernel();
+            long kernel = System.nanoTime() - start;
+
+            double ops = (double) COLORS * ITERATIONS;
+
+            System.out.printf("round %d: RGBtoHSB %.1f ns/op, ColorUtils %.1f ns/op, same results: %b%n", round, array / ops, kernel / ops,
+                              expected == actual);
+        }
+
+        // Hash spread over the kind of colors the look and feel defines.
+        Set<Integer> hashes = new HashSet<Integer>();
+        int          count  = 0;
+
+        for (String parent : new String[] { "seaGlassBase", "seaGlassFocus", "control", "text", "nimbusBlueGrey" }) {
+            for (int i = 0; i < 200; i++) {
+                DerivedColor color = new DerivedColor(parent, offsets[i * 3], offsets[i * 3 + 1], offsets[i * 3 + 2], alphas[i]);
+
+                hashes.add(color.hashCode());
+                count++;
+            }
+        }
+
+        System.out.printf("DerivedColor.hashCode: %d distinct hashes for %d colors%n", hashes.size(), count);
+    }
+
+    private static int arrayBased() {
+        int sink = 0;
+
+        for (int n = 0; n < ITERATIONS; n++) {
+            for (int i = 0; i < COLORS; i++) {
+                Color   src = new Color(argb[i], true);
+                float[] tmp = Color.RGBtoHSB(src.getRed(), src.getGreen(), src.getBlue(), null);
+
+                tmp[0] = clamp(tmp[0] + offsets[i * 3]);
+                tmp[1] = clamp(tmp[1] + offsets[i * 3 + 1]);
+                tmp[2] = clamp(tmp[2] + offsets[i * 3 + 2]);
+                int alpha = Math.max(0, Math.min(255, src.getAlpha() + alphas[i]));
+
+                sink ^= (Color.HSBtoRGB(tmp[0], tmp[1], tmp[2]) & 0xFFFFFF) | (alpha << 24);
+            }
+        }
+
+        return sink;
+    }
+
+    private static int kernel() {
+        int sink = 0;
+
+        for (int n = 0; n < ITERATIONS; n++) {
+            for (int i = 0; i < COLORS; i++) {
+                sink ^= ColorUtils.deriveARGB(argb[i], offsets[i * 3], offsets[i * 3 + 1], offsets[i * 3 + 2], alphas[i]);
+            }
+        }
+
+        return sink;
+    }
+
+    private static float clamp(float value) {
+        return value < 0 ? 0 : (value > 1 ? 1 : value);
+    }
+}
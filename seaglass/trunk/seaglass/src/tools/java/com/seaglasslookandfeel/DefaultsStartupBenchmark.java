@@ -0,0 +1,95 @@
+package com.seaglasslookandfeel;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+
+import javax.swing.LookAndFeel;
+import javax.swing.UIDefaults;
+
+/**
+ * Times installing the look and feel the way an application's cold start
+ * does, and compares building the defaults table with bulk loading a finished
+ * copy of it, which is the best a prebuilt table could do.
+ *
+ * <p>Run with no arguments, preferably with -Djava.awt.headless=true. Each
+ * cold round loads the look and feel in a fresh class loader, so its classes
+ * are loaded and run for the first time, as at startup. The first cold round
+ * also pays for loading Swing itself; read the later ones. The warm rounds
+ * build the defaults again in the same class loader, and the bulk rounds put
+ * the entries of a finished table into an empty one with putDefaults.</p>
+ */
+public class DefaultsStartupBenchmark {
+
+    private static final int COLD_ROUNDS = 6;
+    private static final int WARM_ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        URL         classes = SeaGlassLookAndFeel.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader parent  = ClassLoader.getSystemClassLoader().getParent();
+
+        for (int round = 1; round <= COLD_ROUNDS; round++) {
+            ClassLoader loader = new URLClassLoader(new URL[] { classes }, parent);
+            long        start  = System.nanoTime();
+            LookAndFeel laf    = (LookAndFeel) loader.loadClass(SeaGlassLookAndFeel.class.getName()).newInstance();
+            long        create = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            laf.initialize();
+            long initialize = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            UIDefaults defaults = laf.getDefaults();
+            long       build    = System.nanoTime() - start;
+
+            laf.uninitialize();
+
+            System.out.printf("cold round %d: constructor %.1f ms, initialize %.1f ms, getDefaults %.1f ms, %d entries%n", round,
+                              create / 1e6, initialize / 1e6, build / 1e6, defaults.size());
+        }
+
+        long     warm      = Long.MAX_VALUE;
+        long     bulk      = Long.MAX_VALUE;
+        Object[] prebuilt  = null;
+
+        for (int round = 0; round < WARM_ROUNDS; round++) {
+            SeaGlassLookAndFeel laf   = new SeaGlassLookAndFeel();
+            long                start = System.nanoTime();
+            UIDefaults          built = laf.getDefaults();
+
+            warm = Math.min(warm, System.nanoTime() - start);
+
+            if (prebuilt == null) {
+                prebuilt = toKeyValueList(built);
+            }
+
+            start = System.nanoTime();
+            new UIDefaults().putDefaults(prebuilt);
+            bulk = Math.min(bulk, System.nanoTime() - start);
+
+            laf.uninitialize();
+        }
+
+        System.out.printf("warm: getDefaults %.2f ms, bulk load of the finished table %.2f ms (best of %d)%n", warm / 1e6, bulk / 1e6,
+                          WARM_ROUNDS);
+    }
+
+    /**
+     * Flatten a defaults table into the key/value list putDefaults takes.
+     *
+     * @param  defaults the defaults.
+     *
+     * @return the alternating keys and values.
+     */
+    private static Object[] toKeyValueList(UIDefaults defaults) {
+        Object[] list = new Object[defaults.size() * 2];
+        int      i    = 0;
+
+        for (Map.Entry<Object, Object> entry : defaults.entrySet()) {
+            list[i++] = entry.getKey();
+            list[i++] = entry.getValue();
+        }
+
+        return list;
+    }
+}
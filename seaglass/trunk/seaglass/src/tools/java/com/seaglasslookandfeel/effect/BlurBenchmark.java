@@ -0,0 +1,128 @@
+package com.seaglasslookandfeel.effect;
+
+import java.util.Random;
+
+/**
+ * Compares {@link EffectUtils#blur(byte[], byte[], int, int, int)} with the
+ * plain Gaussian convolution it replaced, for a range of radii.
+ *
+ * <p>Run with no arguments. Add -DSeaGlass.Effect.parallelBlur=true to time
+ * the parallel path for the large image. Each measurement is repeated so the
+ * JIT has settled before the last rounds; read the later figures. The
+ * difference column is the largest difference from the plain convolution,
+ * out of 255, of any pixel at least a radius from the edges. Nearer the edges
+ * the box blur's edge clamping compounds over its passes, which doesn't
+ * matter for shadows, as their buffers are padded by the radius.</p>
+ */
+public class BlurBenchmark {
+
+    private static final int[] RADII  = { 2, 3, 5, 8, 12, 20, 40 };
+    private static final int[] SIZES  = { 64, 512 };
+    private static final int   ROUNDS = 4;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        for (int size : SIZES) {
+            byte[] image = new byte[size * size];
+
+            // a few filled shapes on a clear background, like a shadow mask
+            for (int i = 0; i < 8; i++) {
+                int x0 = random.nextInt(size / 2);
+                int y0 = random.nextInt(size / 2);
+                int w  = random.nextInt(size / 2) + 1;
+                int h  = random.nextInt(size / 2) + 1;
+
+                for (int y = y0; y < y0 + h; y++) {
+
+                    for (int x = x0; x < x0 + w; x++) {
+                        image[y * size + x] = (byte) 0xFF;
+                    }
+                }
+            }
+
+            for (int radius : RADII) {
+                byte[] expected   = image.clone();
+                byte[] actual     = image.clone();
+                byte[] tmp        = new byte[image.length];
+                long   plainTime  = 0;
+                long   blurTime   = 0;
+                int    iterations = Math.max(1, (4 * 1024 * 1024) / (image.length * radius));
+
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+
+                    for (int n = 0; n < iterations; n++) {
+                        System.arraycopy(image, 0, expected, 0, image.length);
+                        plainBlur(expected, tmp, size, size, radius);
+                    }
+
+                    plainTime = System.nanoTime() - start;
+                    start     = System.nanoTime();
+
+                    for (int n = 0; n < iterations; n++) {
+                        System.arraycopy(image, 0, actual, 0, image.length);
+                        EffectUtils.blur(actual, tmp, size, size, radius);
+                    }
+
+                    blurTime = System.nanoTime() - start;
+                }
+
+                int difference = 0;
+
+                for (int y = radius; y < size - radius; y++) {
+
+                    for (int x = radius; x < size - radius; x++) {
+                        int i = y * size + x;
+
+                        difference = Math.max(difference, Math.abs((expected[i] & 0xFF) - (actual[i] & 0xFF)));
+                    }
+                }
+
+                double pixels = (double) image.length * iterations;
+
+                System.out.printf("%4dx%-4d radius %2d: plain %6.2f ns/pixel, EffectUtils %6.2f ns/pixel, difference %d%n", size, size,
+                                  radius, plainTime / pixels, blurTime / pixels, difference);
+            }
+        }
+    }
+
+    /**
+     * The Gaussian blur as it was before the box blur: a full convolution in
+     * each direction, with the kernel created on every call.
+     */
+    private static void plainBlur(byte[] pixels, byte[] tmp, int width, int height, int radius) {
+        float[] kernel = EffectUtils.createGaussianKernel(radius);
+
+        plainPass(pixels, tmp, width, height, kernel, radius);
+        plainPass(tmp, pixels, height, width, kernel, radius);
+    }
+
+    private static void plainPass(byte[] srcPixels, byte[] dstPixels, int width, int height, float[] kernel, int radius) {
+        for (int y = 0; y < height; y++) {
+            int index  = y;
+            int offset = y * width;
+
+            for (int x = 0; x < width; x++) {
+                float p = 0.0f;
+
+                for (int i = -radius; i <= radius; i++) {
+                    int subOffset = x + i;
+
+                    if (subOffset < 0) {
+                        subOffset = 0;
+                    } else if (subOffset >= width) {
+                        subOffset = width - 1;
+                    }
+
+                    p += kernel[radius + i] * (srcPixels[offset + subOffset] & 0xFF);
+                }
+
+                int cp = (int) (p + 0.5f);
+
+                dstPixels[index] =  (byte) (cp > 255 ? 255 : cp);
+                index            += height;
+            }
+        }
+    }
+}